@@ -187,35 +187,13 @@ INSERT INTO todo_categories (user_id, name, color, icon, is_default, sort_order)
 -- 7. 创建视图（优化查询）
 -- =====================================================
 
--- 用户待办事项统计视图
-CREATE VIEW user_todo_stats AS
-SELECT
-    user_id,
-    COUNT(*) as total_count,
-    SUM(CASE WHEN status = 0 THEN 1 ELSE 0 END) as pending_count,
-    SUM(CASE WHEN status = 1 THEN 1 ELSE 0 END) as in_progress_count,
-    SUM(CASE WHEN status = 2 THEN 1 ELSE 0 END) as completed_count,
-    SUM(CASE WHEN status = 3 THEN 1 ELSE 0 END) as cancelled_count,
-    SUM(CASE WHEN due_date < CURDATE() AND status IN (0,1) THEN 1 ELSE 0 END) as overdue_count
-FROM todos
-WHERE deleted_at IS NULL
-GROUP BY user_id;
-
--- 今日待办事项视图
-CREATE VIEW today_todos AS
-SELECT
-    t.*,
-    c.name as category_name,
-    c.color as category_color
-FROM todos t
-LEFT JOIN todo_categories c ON t.category_id = c.id
-WHERE
-    t.deleted_at IS NULL
-    AND (
-        DATE(t.due_date) = CURDATE()
-        OR DATE(t.created_at) = CURDATE()
-    )
-ORDER BY t.priority DESC, t.sort_order ASC;
+-- 用户待办事项统计：不再使用 user_todo_stats 视图（每次读取都要对 todos 全表 GROUP BY），
+-- 改为由应用在Redis中增量维护的计数器，通过 GET /todos/stats 读取，并由定时任务分批校正
+DROP VIEW IF EXISTS user_todo_stats;
+
+-- 今日待办事项：不再使用 today_todos 视图（DATE(due_date) = CURDATE() 无法使用索引），
+-- 改为 GET /todos/today、/todos/overdue、/todos/upcoming，按 idx_user_due_status 做范围查询
+DROP VIEW IF EXISTS today_todos;
 
 -- =====================================================
 -- 8. 创建存储过程（优化批量操作）
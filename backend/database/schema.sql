@@ -18,6 +18,7 @@ CREATE TABLE `users` (
   `last_login_time` datetime DEFAULT NULL COMMENT '最后登录时间',
   `login_count` int DEFAULT '0' COMMENT '登录次数',
   `status` tinyint DEFAULT '1' COMMENT '状态：0-禁用，1-正常',
+  `change_seq` bigint NOT NULL DEFAULT '0' COMMENT '待办事项最新变更序号（增量同步）',
   `created_at` datetime DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
   `updated_at` datetime DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
   `deleted` tinyint DEFAULT '0' COMMENT '删除标识：0-未删除，1-已删除',
@@ -56,11 +57,13 @@ CREATE TABLE `todos` (
   `completed_at` datetime DEFAULT NULL COMMENT '完成时间',
   `due_date` datetime DEFAULT NULL COMMENT '截止日期',
   `reminder_time` datetime DEFAULT NULL COMMENT '提醒时间',
-  `sort_order` int DEFAULT '0' COMMENT '排序序号',
+  `sort_order` bigint NOT NULL DEFAULT '0' COMMENT '排序序号（稀疏排名，新建项为 change_seq << 20）',
   `is_deleted` tinyint DEFAULT '0' COMMENT '是否删除：0-未删除，1-已删除',
   `deleted_at` datetime DEFAULT NULL COMMENT '删除时间',
   `created_at` datetime DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
   `updated_at` datetime DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  `change_seq` bigint NOT NULL DEFAULT '0' COMMENT '变更序号（增量同步），永久删除的行保留作为删除记录',
+  `content_seq` bigint NOT NULL DEFAULT '0' COMMENT '内容版本（离线同步冲突检测），重排排序序号不修改',
   `deleted` tinyint DEFAULT '0' COMMENT '逻辑删除标识：0-未删除，1-已删除',
   PRIMARY KEY (`id`),
   KEY `idx_user_id` (`user_id`),
@@ -70,6 +73,10 @@ CREATE TABLE `todos` (
   KEY `idx_created_at` (`created_at`),
   KEY `idx_sort_order` (`sort_order`),
   KEY `idx_user_status` (`user_id`, `status`),
+  KEY `idx_user_active_order` (`user_id`, `deleted`, `is_deleted`, `sort_order`, `created_at` DESC, `id` DESC),
+  KEY `idx_user_due_status` (`user_id`, `due_date`, `status`),
+  KEY `idx_user_trash_order` (`user_id`, `deleted`, `is_deleted`, `deleted_at` DESC, `id` DESC),
+  KEY `idx_user_change_seq` (`user_id`, `change_seq`, `id`),
   FOREIGN KEY (`user_id`) REFERENCES `users` (`id`) ON DELETE CASCADE,
   FOREIGN KEY (`category_id`) REFERENCES `todo_categories` (`id`) ON DELETE SET NULL
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='待办事项表';
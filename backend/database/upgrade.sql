@@ -0,0 +1,129 @@
+-- =====================================================
+-- Uiineed Todo List 数据库升级脚本（已有数据库）
+-- =====================================================
+--
+-- schema.sql 只用于新建数据库；已有数据库通过本脚本补齐新增的列和索引。
+-- 每一步先查询 information_schema，已完成的步骤自动跳过，可重复执行。
+--
+-- 升级顺序：
+--   1. 停止旧版本应用
+--   2. 执行本脚本：mysql -u root -p uiineed_todo < backend/database/upgrade.sql
+--   3. 部署新版本应用（生产环境 ddl-auto 为 validate，列缺失时应用无法启动）
+--
+-- 首次升级时旧版本必须先停止，原因在第2节（排序序号）：
+--   - sort_order 放大后大于 2048 的值超出旧版本 Integer sortOrder 的范围，旧版本读取列表会失败；
+--   - int 改为 bigint 的 MODIFY 会复制整张表，复制期间写入被阻塞，停机时间与 todos 表大小成正比。
+-- 第2节已完成（sort_order 已为 bigint）之后重复执行本脚本时只补列和索引，可以在应用运行时执行。
+
+DROP PROCEDURE IF EXISTS upgrade_add_column;
+DROP PROCEDURE IF EXISTS upgrade_add_index;
+DROP PROCEDURE IF EXISTS upgrade_widen_sort_order;
+
+DELIMITER //
+
+-- 列不存在时添加
+CREATE PROCEDURE upgrade_add_column(
+    IN p_table VARCHAR(64),
+    IN p_column VARCHAR(64),
+    IN p_definition TEXT
+)
+BEGIN
+    IF NOT EXISTS (
+        SELECT 1 FROM information_schema.columns
+        WHERE table_schema = DATABASE() AND table_name = p_table AND column_name = p_column
+    ) THEN
+        SET @ddl = CONCAT('ALTER TABLE `', p_table, '` ADD COLUMN `', p_column, '` ', p_definition);
+        PREPARE stmt FROM @ddl;
+        EXECUTE stmt;
+        DEALLOCATE PREPARE stmt;
+    END IF;
+END //
+
+-- 索引不存在时添加
+CREATE PROCEDURE upgrade_add_index(
+    IN p_table VARCHAR(64),
+    IN p_index VARCHAR(64),
+    IN p_columns TEXT
+)
+BEGIN
+    IF NOT EXISTS (
+        SELECT 1 FROM information_schema.statistics
+        WHERE table_schema = DATABASE() AND table_name = p_table AND index_name = p_index
+    ) THEN
+        SET @ddl = CONCAT('ALTER TABLE `', p_table, '` ADD INDEX `', p_index, '` (', p_columns, ')');
+        PREPARE stmt FROM @ddl;
+        EXECUTE stmt;
+        DEALLOCATE PREPARE stmt;
+    END IF;
+END //
+
+-- sort_order 由 int 改为 bigint 稀疏排名（只在列仍为 int 时执行一次）
+CREATE PROCEDURE upgrade_widen_sort_order()
+BEGIN
+    IF EXISTS (
+        SELECT 1 FROM information_schema.columns
+        WHERE table_schema = DATABASE() AND table_name = 'todos' AND column_name = 'sort_order'
+          AND data_type = 'int'
+    ) THEN
+        -- 新建项的排名为 change_seq << 20，先把用户的序号抬到已有排序序号之上，新建项仍排在最后
+        UPDATE users u
+        JOIN (SELECT user_id, MAX(sort_order) AS max_order FROM todos GROUP BY user_id) t ON t.user_id = u.id
+        SET u.change_seq = t.max_order + 1
+        WHERE u.change_seq < t.max_order + 1;
+
+        UPDATE todos SET sort_order = 0 WHERE sort_order IS NULL;
+        ALTER TABLE todos MODIFY `sort_order` bigint NOT NULL DEFAULT '0'
+            COMMENT '排序序号（稀疏排名，新建项为 change_seq << 20）';
+
+        -- 已有的排序序号放大为同样的间隔，拖动排序不必立即重排
+        UPDATE todos SET sort_order = sort_order * 1048576;
+    END IF;
+END //
+
+DELIMITER ;
+
+-- =====================================================
+-- 1. 变更序号（增量同步）
+-- =====================================================
+
+CALL upgrade_add_column('users', 'change_seq',
+    'bigint NOT NULL DEFAULT ''0'' COMMENT ''待办事项最新变更序号（增量同步）'' AFTER `status`');
+CALL upgrade_add_column('todos', 'change_seq',
+    'bigint NOT NULL DEFAULT ''0'' COMMENT ''变更序号（增量同步），永久删除的行保留作为删除记录'' AFTER `updated_at`');
+CALL upgrade_add_column('todos', 'content_seq',
+    'bigint NOT NULL DEFAULT ''0'' COMMENT ''内容版本（离线同步冲突检测），重排排序序号不修改'' AFTER `change_seq`');
+
+-- 已有的行记为变更序号1（内容版本与之相同），用户的序号不小于其待办事项的最大序号，
+-- 之后的修改从2开始，客户端首次全量同步后按序号续读
+UPDATE todos SET change_seq = 1 WHERE change_seq = 0;
+UPDATE todos SET content_seq = change_seq WHERE content_seq = 0;
+
+UPDATE users u
+JOIN (SELECT user_id, MAX(change_seq) AS max_seq FROM todos GROUP BY user_id) t ON t.user_id = u.id
+SET u.change_seq = t.max_seq
+WHERE u.change_seq < t.max_seq;
+
+-- =====================================================
+-- 2. 排序序号（须在步骤1之后：依赖 users.change_seq；旧版本应用须已停止）
+-- =====================================================
+
+CALL upgrade_widen_sort_order();
+
+-- =====================================================
+-- 3. 索引
+-- =====================================================
+
+-- 列表与游标分页
+CALL upgrade_add_index('todos', 'idx_user_active_order',
+    '`user_id`, `deleted`, `is_deleted`, `sort_order`, `created_at` DESC, `id` DESC');
+-- 今日/逾期/即将到期
+CALL upgrade_add_index('todos', 'idx_user_due_status', '`user_id`, `due_date`, `status`');
+-- 回收站游标分页
+CALL upgrade_add_index('todos', 'idx_user_trash_order',
+    '`user_id`, `deleted`, `is_deleted`, `deleted_at` DESC, `id` DESC');
+-- 增量同步
+CALL upgrade_add_index('todos', 'idx_user_change_seq', '`user_id`, `change_seq`, `id`');
+
+DROP PROCEDURE IF EXISTS upgrade_add_column;
+DROP PROCEDURE IF EXISTS upgrade_add_index;
+DROP PROCEDURE IF EXISTS upgrade_widen_sort_order;
@@ -0,0 +1,90 @@
+package com.uiineed.todo.benchmark;
+
+import com.uiineed.todo.config.JwtConfig;
+import com.uiineed.todo.security.JwtAuthenticationFilter;
+import com.uiineed.todo.security.JwtTokenVerifier;
+import com.uiineed.todo.service.TokenRevocationService;
+import com.uiineed.todo.service.UserService;
+import com.uiineed.todo.util.BloomFilter;
+import com.uiineed.todo.util.JwtUtil;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * 基准测试公共装配
+ *
+ * <p>不启动Spring容器，直接按生产代码的依赖关系手工装配组件。</p>
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+final class BenchmarkFixtures {
+
+    /**
+     * 满足最小长度要求的测试密钥
+     */
+    static final String SECRET = "uiineed-todo-benchmark-secret-0123456789-abcdefghijklmnopqrstuvwxyz-ABCDEFGHIJ";
+
+    static final Long USER_ID = 10086L;
+
+    static final String OPEN_ID = "o6_bmjrPTlm6_2sgVt7hMZOPfL2M";
+
+    private BenchmarkFixtures() {
+    }
+
+    static JwtConfig jwtConfig(long verifiedCacheMaxSize) {
+        JwtConfig config = new JwtConfig();
+        config.setSecret(SECRET);
+        config.setVerifiedCacheMaxSize(verifiedCacheMaxSize);
+        config.init();
+        return config;
+    }
+
+    static JwtUtil jwtUtil(JwtConfig config) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "jwtConfig", config);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+
+    static JwtTokenVerifier jwtTokenVerifier(JwtConfig config, JwtUtil jwtUtil) {
+        JwtTokenVerifier verifier = new JwtTokenVerifier();
+        ReflectionTestUtils.setField(verifier, "jwtConfig", config);
+        ReflectionTestUtils.setField(verifier, "jwtUtil", jwtUtil);
+        verifier.init();
+        return verifier;
+    }
+
+    /**
+     * 只装配本地布隆过滤器的吊销服务，未吊销的Token在本地即可判定，不访问Redis
+     */
+    static TokenRevocationService tokenRevocationService(JwtConfig config) {
+        TokenRevocationService service = new TokenRevocationService();
+        ReflectionTestUtils.setField(service, "jwtConfig", config);
+        ReflectionTestUtils.setField(service, "current", new BloomFilter(
+                config.getRevocationExpectedInsertions(), config.getRevocationFalsePositiveRate()));
+        return service;
+    }
+
+    /**
+     * 用户状态检查视为缓存命中的有效用户，不访问Redis和数据库
+     */
+    static UserService userService() {
+        return new UserService() {
+            @Override
+            public boolean isUserValid(Long userId) {
+                return true;
+            }
+        };
+    }
+
+    static JwtAuthenticationFilter jwtAuthenticationFilter(JwtConfig config, JwtUtil jwtUtil,
+                                                           JwtTokenVerifier verifier) {
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtConfig", config);
+        ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(filter, "jwtTokenVerifier", verifier);
+        ReflectionTestUtils.setField(filter, "tokenRevocationService", tokenRevocationService(config));
+        ReflectionTestUtils.setField(filter, "userService", userService());
+        return filter;
+    }
+}
@@ -0,0 +1,78 @@
+package com.uiineed.todo.benchmark;
+
+import com.uiineed.todo.config.JwtConfig;
+import com.uiineed.todo.security.JwtAuthenticationFilter;
+import com.uiineed.todo.security.JwtTokenVerifier;
+import com.uiineed.todo.util.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtAuthenticationFilter 整体开销基准
+ *
+ * <p>verifiedCacheMaxSize=0 时每次请求都完整校验签名，用于对比验证缓存的收益。</p>
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    @Param({"10000", "0"})
+    public long verifiedCacheMaxSize;
+
+    private JwtAuthenticationFilter filter;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    private final FilterChain chain = (req, res) -> { };
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        JwtConfig config = BenchmarkFixtures.jwtConfig(verifiedCacheMaxSize);
+        JwtUtil jwtUtil = BenchmarkFixtures.jwtUtil(config);
+        JwtTokenVerifier verifier = BenchmarkFixtures.jwtTokenVerifier(config, jwtUtil);
+        filter = BenchmarkFixtures.jwtAuthenticationFilter(config, jwtUtil, verifier);
+
+        String token = jwtUtil.generateToken(BenchmarkFixtures.USER_ID, BenchmarkFixtures.OPEN_ID);
+        request = new MockHttpServletRequest("GET", "/api/todos");
+        request.addHeader(config.getHeader(), config.getPrefix() + " " + token);
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Authentication doFilter() throws ServletException, IOException {
+        try {
+            filter.doFilter(request, response, chain);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
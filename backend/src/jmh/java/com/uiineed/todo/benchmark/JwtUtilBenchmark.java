@@ -0,0 +1,86 @@
+package com.uiineed.todo.benchmark;
+
+import com.uiineed.todo.config.JwtConfig;
+import com.uiineed.todo.security.JwtPrincipal;
+import com.uiineed.todo.security.JwtTokenVerifier;
+import com.uiineed.todo.util.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtUtil 生成与校验开销基准
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private JwtUtil jwtUtil;
+
+    private JwtTokenVerifier cachedVerifier;
+
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        JwtConfig config = BenchmarkFixtures.jwtConfig(10000L);
+        jwtUtil = BenchmarkFixtures.jwtUtil(config);
+        cachedVerifier = BenchmarkFixtures.jwtTokenVerifier(config, jwtUtil);
+        token = jwtUtil.generateToken(BenchmarkFixtures.USER_ID, BenchmarkFixtures.OPEN_ID);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(BenchmarkFixtures.USER_ID, BenchmarkFixtures.OPEN_ID);
+    }
+
+    @Benchmark
+    public String generateRefreshToken() {
+        return jwtUtil.generateRefreshToken(BenchmarkFixtures.USER_ID, BenchmarkFixtures.OPEN_ID);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtil.validateToken(token);
+    }
+
+    /**
+     * 旧版过滤器的调用方式：校验一次，再分别解析用户ID和OpenID
+     */
+    @Benchmark
+    public Object validateThenExtractClaims() {
+        if (!jwtUtil.validateToken(token)) {
+            return null;
+        }
+        Long userId = jwtUtil.getUserIdFromToken(token);
+        String openId = jwtUtil.getOpenIdFromToken(token);
+        return userId.hashCode() ^ openId.hashCode();
+    }
+
+    @Benchmark
+    public JwtPrincipal parseTokenOnce() {
+        return jwtUtil.parseToken(token);
+    }
+
+    @Benchmark
+    public JwtPrincipal verifyCached() {
+        return cachedVerifier.verify(token);
+    }
+}
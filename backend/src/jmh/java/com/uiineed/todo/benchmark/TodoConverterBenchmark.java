@@ -0,0 +1,93 @@
+package com.uiineed.todo.benchmark;
+
+import com.uiineed.todo.converter.TodoConverter;
+import com.uiineed.todo.entity.Todo;
+import com.uiineed.todo.vo.TodoResponse;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.BeanUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 待办事项实体转VO开销基准：反射复制（BeanUtils）与编译期生成的转换器
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TodoConverterBenchmark {
+
+    /**
+     * 每页记录数
+     */
+    @Param({"1", "20", "100"})
+    private int rows;
+
+    private TodoConverter todoConverter;
+
+    private List<Todo> todos;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        todoConverter = Mappers.getMapper(TodoConverter.class);
+
+        LocalDateTime now = LocalDateTime.now();
+        todos = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Todo todo = new Todo();
+            todo.setId((long) i + 1);
+            todo.setUserId(BenchmarkFixtures.USER_ID);
+            todo.setCategoryId(1L);
+            todo.setTitle("完成项目文档 " + i);
+            todo.setDescription("需要完成的项目说明文档");
+            todo.setPriority(2);
+            todo.setStatus(i % 2 == 0 ? Todo.Status.TODO : Todo.Status.COMPLETED);
+            todo.setDueDate(now.plusDays(i));
+            todo.setSortOrder((long) i << 20);
+            todo.setIsDeleted(0);
+            todo.setDeleted(0);
+            todo.setCreatedAt(now);
+            todo.setUpdatedAt(now);
+            todos.add(todo);
+        }
+    }
+
+    /**
+     * 旧版控制器的转换方式
+     */
+    @Benchmark
+    public List<TodoResponse> beanUtilsCopyProperties() {
+        List<TodoResponse> responses = new ArrayList<>(todos.size());
+        for (Todo todo : todos) {
+            TodoResponse response = new TodoResponse();
+            BeanUtils.copyProperties(todo, response);
+            responses.add(response);
+        }
+        return responses;
+    }
+
+    @Benchmark
+    public List<TodoResponse> generatedConverter() {
+        return todoConverter.toResponses(todos);
+    }
+}
@@ -0,0 +1,33 @@
+package com.uiineed.todo.cache;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 可缓存的列表结果
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Data
+@NoArgsConstructor
+public class CachedList<T> {
+
+    private List<T> records;
+
+    public CachedList(List<T> records) {
+        this.records = new ArrayList<>(records);
+    }
+
+    /**
+     * 返回记录副本
+     *
+     * @return 记录列表
+     */
+    public List<T> toList() {
+        return new ArrayList<>(records);
+    }
+}
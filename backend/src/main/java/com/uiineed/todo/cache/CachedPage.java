@@ -0,0 +1,46 @@
+package com.uiineed.todo.cache;
+
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 可缓存的分页结果（只保留记录与分页信息，不含查询条件）
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Data
+@NoArgsConstructor
+public class CachedPage<T> {
+
+    private List<T> records;
+
+    private long total;
+
+    private long current;
+
+    private long size;
+
+    public CachedPage(IPage<T> page) {
+        this.records = new ArrayList<>(page.getRecords());
+        this.total = page.getTotal();
+        this.current = page.getCurrent();
+        this.size = page.getSize();
+    }
+
+    /**
+     * 转换为分页对象（每次返回新的对象，记录列表为副本）
+     *
+     * @return 分页对象
+     */
+    public IPage<T> toPage() {
+        Page<T> page = new Page<>(current, size, total);
+        page.setRecords(new ArrayList<>(records));
+        return page;
+    }
+}
@@ -0,0 +1,135 @@
+package com.uiineed.todo.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 两级缓存：进程内L1（Caffeine，容量有限、TTL较短）+ Redis L2
+ *
+ * <p>读取顺序为 L1 → L2 → 加载函数，加载结果依次回填L2和L1；null不缓存。
+ * 失效通过 {@link TwoLevelCacheManager} 广播到集群内所有节点的L1。
+ * L1中保存的是共享实例，调用方不得修改取到的对象。</p>
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Slf4j
+public class TwoLevelCache<V> {
+
+    private final String name;
+
+    private final Cache<String, V> local;
+
+    private final org.springframework.cache.Cache remote;
+
+    private final Class<V> type;
+
+    private final TwoLevelCacheManager manager;
+
+    /**
+     * 各层命中的次数与耗时（未命中时计入加载耗时）
+     */
+    private final Timer localHits;
+
+    private final Timer remoteHits;
+
+    private final Timer misses;
+
+    TwoLevelCache(String name, Cache<String, V> local, org.springframework.cache.Cache remote, Class<V> type,
+                  TwoLevelCacheManager manager, Timer localHits, Timer remoteHits, Timer misses) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.type = type;
+        this.manager = manager;
+        this.localHits = localHits;
+        this.remoteHits = remoteHits;
+        this.misses = misses;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 读取缓存，未命中时调用加载函数
+     *
+     * @param key 键
+     * @param loader 加载函数，可返回null
+     * @return 值
+     */
+    public V get(String key, Supplier<V> loader) {
+        long start = System.nanoTime();
+        V value = local.getIfPresent(key);
+        if (value != null) {
+            localHits.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return value;
+        }
+
+        value = getRemote(key);
+        if (value != null) {
+            local.put(key, value);
+            remoteHits.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return value;
+        }
+
+        value = loader.get();
+        if (value != null) {
+            put(key, value);
+        }
+        misses.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return value;
+    }
+
+    /**
+     * 写入缓存（只影响本节点L1和共享的L2）
+     *
+     * @param key 键
+     * @param value 值
+     */
+    public void put(String key, V value) {
+        local.put(key, value);
+        try {
+            remote.put(key, value);
+        } catch (Exception e) {
+            log.warn("写入二级缓存失败: cache={}, key={}", name, key, e);
+        }
+    }
+
+    /**
+     * 失效缓存：删除L2并通知所有节点清除L1
+     *
+     * @param key 键
+     */
+    public void evict(String key) {
+        local.invalidate(key);
+        try {
+            remote.evict(key);
+        } catch (Exception e) {
+            log.warn("删除二级缓存失败: cache={}, key={}", name, key, e);
+        }
+        manager.broadcastEvict(name, key);
+    }
+
+    /**
+     * 只清除本节点L1（收到失效广播时调用）
+     *
+     * @param key 键
+     */
+    void evictLocal(String key) {
+        local.invalidate(key);
+    }
+
+    private V getRemote(String key) {
+        try {
+            return remote.get(key, type);
+        } catch (Exception e) {
+            log.warn("读取二级缓存失败: cache={}, key={}", name, key, e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.uiineed.todo.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 两级缓存管理器
+ *
+ * <p>L2使用 {@link CacheManager} 中同名的Redis缓存（TTL等配置见 RedisConfig），
+ * 失效消息通过Redis发布/订阅广播，各节点收到后清除自己的L1。</p>
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class TwoLevelCacheManager implements MessageListener {
+
+    private static final String CHANNEL = "cache:evict";
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, TwoLevelCache<?>> caches = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    /**
+     * 创建两级缓存
+     *
+     * @param name 缓存名称（同时是L2的Redis缓存名称）
+     * @param type 值类型
+     * @param localMaxSize L1容量上限
+     * @param localTtl L1有效期
+     * @return 两级缓存
+     */
+    public <V> TwoLevelCache<V> create(String name, Class<V> type, long localMaxSize, Duration localTtl) {
+        com.github.benmanes.caffeine.cache.Cache<String, V> local = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(localTtl)
+                .build();
+
+        TwoLevelCache<V> cache = new TwoLevelCache<>(name, local, cacheManager.getCache(name), type, this,
+                timer(name, "l1"), timer(name, "l2"), timer(name, "miss"));
+        if (caches.putIfAbsent(name, cache) != null) {
+            throw new IllegalStateException("两级缓存已存在: " + name);
+        }
+        log.info("创建两级缓存: name={}, L1容量={}, L1有效期={}", name, localMaxSize, localTtl);
+        return cache;
+    }
+
+    /**
+     * 广播失效消息
+     *
+     * @param name 缓存名称
+     * @param key 键
+     */
+    void broadcastEvict(String name, String key) {
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL, name + ":" + key);
+        } catch (Exception e) {
+            log.warn("广播缓存失效失败: cache={}, key={}", name, key, e);
+        }
+    }
+
+    /**
+     * 接收失效消息，清除本节点L1
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(':');
+        if (separator <= 0) {
+            return;
+        }
+
+        TwoLevelCache<?> cache = caches.get(body.substring(0, separator));
+        if (cache != null) {
+            cache.evictLocal(body.substring(separator + 1));
+        }
+    }
+
+    private Timer timer(String name, String tier) {
+        return Timer.builder("cache.two_level.gets")
+                .description("两级缓存读取次数与耗时，按命中层级区分（miss包含加载耗时）")
+                .tag("cache", name)
+                .tag("result", tier)
+                .register(meterRegistry);
+    }
+}
@@ -44,6 +44,7 @@ public enum ResultCode {
     WECHAT_GET_ACCESS_TOKEN_FAILED(3002, "获取微信Access Token失败"),
     WECHAT_GET_USER_INFO_FAILED(3003, "获取微信用户信息失败"),
     WECHAT_CODE_INVALID(3004, "微信授权码无效或已过期"),
+    WECHAT_SERVICE_BUSY(3005, "微信登录繁忙，请稍后重试"),
 
     /**
      * 系统错误
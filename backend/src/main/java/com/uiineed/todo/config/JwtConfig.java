@@ -56,6 +56,31 @@ public class JwtConfig {
      */
     private Long rememberMeExpiration = 2592000000L; // 30天
 
+    /**
+     * 已验证Token缓存最大条目数
+     */
+    private Long verifiedCacheMaxSize = 10000L;
+
+    /**
+     * 已验证Token缓存最长存活时间（毫秒），实际存活时间不超过Token自身过期时间
+     */
+    private Long verifiedCacheTtl = 600000L; // 10分钟
+
+    /**
+     * 吊销Token布隆过滤器预期容量
+     */
+    private Integer revocationExpectedInsertions = 100000;
+
+    /**
+     * 吊销Token布隆过滤器误判率
+     */
+    private Double revocationFalsePositiveRate = 0.001;
+
+    /**
+     * 吊销Token布隆过滤器重建间隔（毫秒），用于清理已过期的吊销记录
+     */
+    private Long revocationRebuildInterval = 3600000L; // 1小时
+
     /**
      * 密钥最小长度要求
      */
@@ -0,0 +1,42 @@
+package com.uiineed.todo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 进程内（L1）缓存配置类
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "cache.local")
+public class LocalCacheConfig {
+
+    /**
+     * 用户缓存容量上限
+     */
+    private Long userMaxSize = 10000L;
+
+    /**
+     * 用户缓存有效期（毫秒），同时是错过失效广播时的最长不一致时间
+     */
+    private Long userTtl = 30000L;
+
+    /**
+     * 待办列表分页缓存容量上限（同时是本地列表版本号的容量上限）
+     */
+    private Long todoListMaxSize = 10000L;
+
+    /**
+     * 待办列表分页缓存有效期（毫秒）
+     */
+    private Long todoListTtl = 60000L;
+
+    /**
+     * 本地列表版本号有效期（毫秒），同时是错过版本广播时的最长不一致时间
+     */
+    private Long listVersionTtl = 10000L;
+}
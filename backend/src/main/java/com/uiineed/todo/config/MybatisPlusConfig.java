@@ -0,0 +1,38 @@
+package com.uiineed.todo.config;
+
+import com.baomidou.mybatisplus.annotation.DbType;
+import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
+import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * MyBatis Plus配置类
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Slf4j
+@Configuration
+public class MybatisPlusConfig {
+
+    /**
+     * 单页最大记录数
+     */
+    public static final long MAX_PAGE_SIZE = 100L;
+
+    /**
+     * 分页插件（selectPage需要该插件才会生成LIMIT和COUNT）
+     */
+    @Bean
+    public MybatisPlusInterceptor mybatisPlusInterceptor() {
+        PaginationInnerInterceptor paginationInnerInterceptor = new PaginationInnerInterceptor(DbType.MYSQL);
+        paginationInnerInterceptor.setMaxLimit(MAX_PAGE_SIZE);
+
+        MybatisPlusInterceptor interceptor = new MybatisPlusInterceptor();
+        interceptor.addInnerInterceptor(paginationInnerInterceptor);
+        log.info("MyBatis Plus分页插件配置完成，单页最大记录数：{}", MAX_PAGE_SIZE);
+        return interceptor;
+    }
+}
@@ -0,0 +1,51 @@
+package com.uiineed.todo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 预生成二维码池配置类
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "wechat.qr-pool")
+public class QrCodePoolConfig {
+
+    /**
+     * 低水位：池中剩余数量低于该值时触发后台补充
+     */
+    private Integer lowWatermark = 32;
+
+    /**
+     * 高水位：后台补充到该数量为止，同时也是池的容量上限
+     */
+    private Integer highWatermark = 128;
+
+    /**
+     * 后台生成线程数，0表示使用CPU核数
+     */
+    private Integer workers = 0;
+
+    /**
+     * 二维码显示边长（像素），SVG按此尺寸声明宽高，PNG按此尺寸整数倍放大
+     */
+    private Integer size = 300;
+
+    /**
+     * 本地缓存的已发放二维码数量上限
+     */
+    private Long issuedCacheMaxSize = 10000L;
+
+    /**
+     * 实际使用的后台生成线程数
+     *
+     * @return 线程数
+     */
+    public int resolveWorkers() {
+        return workers != null && workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+    }
+}
@@ -6,6 +6,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
@@ -14,6 +15,7 @@ import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
@@ -33,6 +35,12 @@ import java.util.Map;
 @EnableCaching
 public class RedisConfig {
 
+    /**
+     * 用户缓存（L2）有效期（毫秒），同时是直接在数据库中修改用户后的最长生效时间
+     */
+    @Value("${cache.redis.user-ttl:300000}")
+    private Long userCacheTtl;
+
     /**
      * Redis模板配置
      */
@@ -66,6 +74,16 @@ public class RedisConfig {
         return template;
     }
 
+    /**
+     * Redis消息监听容器（用于集群内各节点间的发布/订阅通知）
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
     /**
      * 缓存管理器配置
      */
@@ -91,8 +109,8 @@ public class RedisConfig {
         // 设置一个初始化的缓存空间set集合
         Map<String, RedisCacheConfiguration> configMap = new HashMap<>();
 
-        // 用户相关缓存 - 1小时
-        configMap.put("users", config.entryTtl(Duration.ofHours(1)));
+        // 用户相关缓存 - 默认5分钟（状态变更经 UserService.updateStatus 时立即失效）
+        configMap.put("users", config.entryTtl(Duration.ofMillis(userCacheTtl)));
 
         // 待办事项缓存 - 10分钟
         configMap.put("todos", config.entryTtl(Duration.ofMinutes(10)));
@@ -100,6 +118,9 @@ public class RedisConfig {
         // 用户待办事项缓存 - 5分钟
         configMap.put("user_todos", config.entryTtl(Duration.ofMinutes(5)));
 
+        // 截止日期视图日桶缓存 - 1天（键中包含日期，跨天后不再命中）
+        configMap.put("todo_due", config.entryTtl(Duration.ofDays(1)));
+
         // 认证Token缓存 - 7天
         configMap.put("auth_tokens", config.entryTtl(Duration.ofDays(7)));
 
@@ -35,6 +35,16 @@ public class WeChatConfig {
      */
     private String scope;
 
+    /**
+     * 登录二维码有效期（秒）
+     */
+    private Integer qrExpireSeconds = 300;
+
+    /**
+     * 微信用户资料缓存有效期（秒），有效期内重复登录不再调用用户信息接口，0表示不缓存
+     */
+    private Integer profileFreshnessSeconds = 21600;
+
     /**
      * 微信授权地址
      */
@@ -0,0 +1,120 @@
+package com.uiineed.todo.config;
+
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 微信接口HTTP客户端配置类
+ *
+ * <p>所有微信接口调用共用一个带连接池的客户端，复用长连接并设置严格的超时；
+ * 登录回调在独立的有界线程池中执行，微信接口变慢时只会占满该线程池，
+ * 不会拖住Tomcat工作线程。</p>
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Slf4j
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "wechat.http")
+public class WeChatHttpConfig {
+
+    /**
+     * 获取Access Token接口路径
+     */
+    public static final String ACCESS_TOKEN_PATH = "/sns/oauth2/access_token";
+
+    /**
+     * 获取用户信息接口路径
+     */
+    public static final String USER_INFO_PATH = "/sns/userinfo";
+
+    /**
+     * 微信接口基础地址，测试时可指向本地桩服务
+     */
+    private String apiBaseUrl = "https://api.weixin.qq.com";
+
+    /**
+     * 连接池最大连接数
+     */
+    private Integer maxTotal = 200;
+
+    /**
+     * 每个路由（主机）最大连接数
+     */
+    private Integer maxPerRoute = 50;
+
+    /**
+     * 建立连接超时时间（毫秒）
+     */
+    private Integer connectTimeout = 2000;
+
+    /**
+     * 读取响应超时时间（毫秒）
+     */
+    private Integer socketTimeout = 5000;
+
+    /**
+     * 从连接池获取连接的超时时间（毫秒）
+     */
+    private Integer connectionRequestTimeout = 1000;
+
+    /**
+     * 空闲连接保留时间（毫秒），超过后由后台线程关闭
+     */
+    private Long idleTimeout = 30000L;
+
+    /**
+     * 登录回调线程数
+     */
+    private Integer callbackThreads = 16;
+
+    /**
+     * 登录回调等待队列长度，队列满时直接拒绝
+     */
+    private Integer callbackQueueCapacity = 200;
+
+    /**
+     * 登录回调整体超时时间（毫秒）
+     */
+    private Long callbackTimeout = 15000L;
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient weChatHttpClient() {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(
+                idleTimeout, TimeUnit.MILLISECONDS);
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        connectionManager.setValidateAfterInactivity(2000);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeout)
+                .setSocketTimeout(socketTimeout)
+                .setConnectionRequestTimeout(connectionRequestTimeout)
+                .build();
+
+        log.info("微信HTTP客户端初始化，最大连接数：{}，每路由最大连接数：{}", maxTotal, maxPerRoute);
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy((response, context) -> {
+                    // 服务端声明了Keep-Alive时长时取两者较小值
+                    long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return duration > 0 ? Math.min(duration, idleTimeout) : idleTimeout;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(idleTimeout, TimeUnit.MILLISECONDS)
+                .disableCookieManagement()
+                .build();
+    }
+}
@@ -0,0 +1,26 @@
+package com.uiineed.todo.config;
+
+import com.uiineed.todo.web.ConditionalGetInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Spring MVC配置类
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private ConditionalGetInterceptor conditionalGetInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // 只对标注了 @ConditionalGet 的GET接口生效
+        registry.addInterceptor(conditionalGetInterceptor);
+    }
+}
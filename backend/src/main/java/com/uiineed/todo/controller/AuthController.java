@@ -1,27 +1,42 @@
 package com.uiineed.todo.controller;
 
 import com.uiineed.todo.common.ApiResult;
+import com.google.zxing.common.BitMatrix;
 import com.uiineed.todo.common.ResultCode;
+import com.uiineed.todo.config.QrCodePoolConfig;
 import com.uiineed.todo.config.WeChatConfig;
+import com.uiineed.todo.converter.UserConverter;
 import com.uiineed.todo.entity.User;
+import com.uiineed.todo.security.JwtPrincipal;
+import com.uiineed.todo.security.JwtTokenVerifier;
+import com.uiineed.todo.service.QrCodePool;
+import com.uiineed.todo.service.QrLoginStateService;
+import com.uiineed.todo.service.TokenRevocationService;
 import com.uiineed.todo.service.UserService;
 import com.uiineed.todo.service.WeChatService;
 import com.uiineed.todo.util.JwtUtil;
+import com.uiineed.todo.util.QrCodeRenderer;
 import com.uiineed.todo.vo.LoginResponse;
 import com.uiineed.todo.vo.QrCodeResponse;
-import com.google.zxing.BarcodeFormat;
-import com.google.zxing.client.j2se.MatrixToImageWriter;
-import com.google.zxing.common.BitMatrix;
-import com.google.zxing.qrcode.QRCodeWriter;
+import com.uiineed.todo.vo.QrLoginStatusResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
-import javax.servlet.http.HttpServletResponse;
-import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 认证控制器
@@ -35,6 +50,8 @@ import java.util.UUID;
 @CrossOrigin(origins = "*", maxAge = 3600)
 public class AuthController {
 
+    private static final MediaType IMAGE_SVG = MediaType.valueOf("image/svg+xml");
+
     @Autowired
     private WeChatService weChatService;
 
@@ -44,36 +61,50 @@ public class AuthController {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private JwtTokenVerifier jwtTokenVerifier;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private QrLoginStateService qrLoginStateService;
+
+    @Autowired
+    private QrCodePool qrCodePool;
+
     @Autowired
     private WeChatConfig weChatConfig;
 
+    @Autowired
+    private QrCodePoolConfig qrCodePoolConfig;
+
+    @Autowired
+    private UserConverter userConverter;
+
     /**
      * 获取微信登录二维码
      *
+     * @param format 图片格式：svg 或 png
      * @return 二维码响应
      */
     @GetMapping("/qrcode")
-    public ApiResult<QrCodeResponse> getLoginQrCode() {
+    public ApiResult<QrCodeResponse> getLoginQrCode(@RequestParam(defaultValue = "svg") String format) {
         try {
-            // 生成唯一状态值
-            String state = UUID.randomUUID().toString();
-
-            // 生成微信授权URL
-            String authUrl = weChatService.getAuthUrl(state);
+            // 从预生成池中取出二维码，并登记状态值供回调时校验；轮询令牌只返回给当前页面
+            QrCodePool.PreparedQrCode prepared = qrCodePool.take();
+            String pollToken = qrLoginStateService.register(prepared.getState());
 
-            // 生成二维码
-            QRCodeWriter qrCodeWriter = new QRCodeWriter();
-            BitMatrix bitMatrix = qrCodeWriter.encode(authUrl, BarcodeFormat.QR_CODE, 300, 300);
-
-            // 将二维码转换为Base64
-            java.io.ByteArrayOutputStream outputStream = new java.io.ByteArrayOutputStream();
-            MatrixToImageWriter.writeToStream(bitMatrix, "PNG", outputStream);
-            String qrCodeBase64 = java.util.Base64.getEncoder().encodeToString(outputStream.toByteArray());
+            String extension = "png".equalsIgnoreCase(format) ? "png" : "svg";
+            String imageUrl = ServletUriComponentsBuilder.fromCurrentContextPath()
+                    .path("/auth/qrcode/{state}." + extension)
+                    .buildAndExpand(prepared.getState())
+                    .toUriString();
 
             QrCodeResponse response = new QrCodeResponse();
-            response.setQrCode("data:image/png;base64," + qrCodeBase64);
-            response.setState(state);
-            response.setAuthUrl(authUrl);
+            response.setQrCode(imageUrl);
+            response.setState(prepared.getState());
+            response.setPollToken(pollToken);
             response.setMessage("请使用微信扫描二维码登录");
 
             return ApiResult.success(response);
@@ -83,63 +114,124 @@ public class AuthController {
         }
     }
 
+    /**
+     * 获取登录二维码图片（SVG）
+     *
+     * @param state 状态参数
+     * @return SVG图片
+     */
+    @GetMapping("/qrcode/{state}.svg")
+    public ResponseEntity<byte[]> getLoginQrCodeSvg(@PathVariable String state) {
+        BitMatrix modules = findQrCode(state);
+        if (modules == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return qrCodeImage(IMAGE_SVG, QrCodeRenderer.toSvg(modules, qrCodePoolConfig.getSize()));
+    }
+
+    /**
+     * 获取登录二维码图片（PNG）
+     *
+     * @param state 状态参数
+     * @return PNG图片
+     */
+    @GetMapping("/qrcode/{state}.png")
+    public ResponseEntity<byte[]> getLoginQrCodePng(@PathVariable String state) {
+        BitMatrix modules = findQrCode(state);
+        if (modules == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return qrCodeImage(MediaType.IMAGE_PNG, QrCodeRenderer.toPng(modules, qrCodePoolConfig.getSize()));
+    }
+
     /**
      * 微信登录回调
      *
+     * <p>调用微信接口的部分在独立的回调线程池中执行，请求线程立即释放。</p>
+     *
      * @param code 授权码
      * @param state 状态参数
      * @return 登录响应
      */
     @GetMapping("/wechat/callback")
-    public ApiResult<LoginResponse> wechatCallback(
+    public CompletableFuture<ApiResult<LoginResponse>> wechatCallback(
             @RequestParam String code,
             @RequestParam String state) {
 
-        try {
-            // 验证状态参数（防CSRF攻击）
-            if (!weChatService.validateState(state)) {
-                return ApiResult.failed(ResultCode.WECHAT_CODE_INVALID);
-            }
-
-            // 获取Access Token
-            WeChatService.WeChatAccessToken accessToken = weChatService.getAccessToken(code);
-
-            // 获取用户信息
-            WeChatService.WeChatUserInfo userInfo = weChatService.getUserInfo(
-                accessToken.getAccess_token(),
-                accessToken.getOpenid()
-            );
-
-            // 查找或创建用户
-            User user = userService.findOrCreateByWeChatOpenId(userInfo);
-
-            // 更新最后登录时间
-            userService.updateLastLoginTime(user.getId());
-
-            // 生成JWT Token
-            String token = jwtUtil.generateToken(user.getId(), user.getWechatOpenId());
-            String refreshToken = jwtUtil.generateRefreshToken(user.getId(), user.getWechatOpenId());
+        // 验证状态参数（防CSRF攻击）
+        if (!weChatService.validateState(state)) {
+            return CompletableFuture.completedFuture(ApiResult.failed(ResultCode.WECHAT_CODE_INVALID));
+        }
 
-            // 构造响应
-            LoginResponse loginResponse = new LoginResponse();
-            loginResponse.setToken(token);
-            loginResponse.setRefreshToken(refreshToken);
-            loginResponse.setTokenType("Bearer");
-            loginResponse.setExpiresIn(jwtUtil.getExpirationDateFromToken(token).getTime());
+        return weChatService.executeCallback(() -> completeWechatLogin(code, state))
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    qrLoginStateService.fail(state);
+                    if (cause instanceof RejectedExecutionException) {
+                        return ApiResult.failed(ResultCode.WECHAT_SERVICE_BUSY);
+                    }
+                    log.error("微信登录失败", cause);
+                    return ApiResult.failed(ResultCode.WECHAT_AUTH_FAILED);
+                });
+    }
 
-            User.UserInfo userInfoResponse = new User.UserInfo();
-            userInfoResponse.setId(user.getId());
-            userInfoResponse.setNickname(user.getNickname());
-            userInfoResponse.setAvatarUrl(user.getAvatarUrl());
-            userInfoResponse.setLanguage(user.getLanguage());
-            loginResponse.setUser(userInfoResponse);
+    /**
+     * 完成微信登录：换取Access Token、获取用户信息并签发Token
+     */
+    private ApiResult<LoginResponse> completeWechatLogin(String code, String state) {
+        // 获取Access Token
+        WeChatService.WeChatAccessToken accessToken = weChatService.getAccessToken(code);
+
+        // 获取用户信息
+        WeChatService.WeChatUserInfo userInfo = weChatService.getUserInfo(
+            accessToken.getAccess_token(),
+            accessToken.getOpenid()
+        );
+
+        // 查找或创建用户
+        User user = userService.findOrCreateByWeChatOpenId(userInfo);
+
+        // 更新最后登录时间
+        userService.updateLastLoginTime(user);
+
+        // 生成JWT Token
+        String token = jwtUtil.generateToken(user.getId(), user.getWechatOpenId());
+        String refreshToken = jwtUtil.generateRefreshToken(user.getId(), user.getWechatOpenId());
+
+        // 构造响应
+        LoginResponse loginResponse = new LoginResponse();
+        loginResponse.setToken(token);
+        loginResponse.setRefreshToken(refreshToken);
+        loginResponse.setTokenType("Bearer");
+        loginResponse.setExpiresIn(jwtUtil.getExpirationDateFromToken(token).getTime());
+
+        loginResponse.setUser(userConverter.toUserInfo(user));
+
+        // 通知等待中的扫码页面；回调已超时（state已标记失败）或已过期时丢弃本次结果
+        if (!qrLoginStateService.confirm(state, loginResponse)) {
+            log.warn("扫码登录已超时或过期，丢弃登录结果: userId={}", user.getId());
+            return ApiResult.failed(ResultCode.WECHAT_CODE_INVALID);
+        }
 
-            return ApiResult.success("登录成功", loginResponse);
+        return ApiResult.success("登录成功", loginResponse);
+    }
 
-        } catch (Exception e) {
-            log.error("微信登录失败", e);
-            return ApiResult.failed(ResultCode.WECHAT_AUTH_FAILED);
-        }
+    /**
+     * 等待扫码登录状态变化（长轮询）
+     *
+     * @param state 状态参数
+     * @param pollToken 获取二维码时返回的轮询令牌
+     * @param since 客户端已知的状态，状态变化或超时后返回
+     * @param timeout 最长等待时间（毫秒）
+     * @return 扫码状态
+     */
+    @GetMapping("/qrcode/{state}/status")
+    public DeferredResult<ApiResult<QrLoginStatusResponse>> getQrLoginStatus(
+            @PathVariable String state,
+            @RequestHeader(value = "X-Poll-Token", required = false) String pollToken,
+            @RequestParam(defaultValue = QrLoginStateService.PENDING) String since,
+            @RequestParam(defaultValue = "25000") Long timeout) {
+        return qrLoginStateService.await(state, pollToken, since, timeout);
     }
 
     /**
@@ -151,14 +243,14 @@ public class AuthController {
     @PostMapping("/refresh")
     public ApiResult<Map<String, Object>> refreshToken(@RequestParam String refreshToken) {
         try {
-            // 验证刷新Token
-            if (!jwtUtil.validateRefreshToken(refreshToken)) {
+            // 验证刷新Token并获取用户信息（只解析一次）
+            JwtPrincipal principal = jwtTokenVerifier.verify(refreshToken);
+            if (principal == null || !principal.isRefreshToken() || tokenRevocationService.isRevoked(principal)) {
                 return ApiResult.failed(ResultCode.TOKEN_INVALID);
             }
 
-            // 从刷新Token中获取用户信息
-            Long userId = jwtUtil.getUserIdFromToken(refreshToken);
-            String openId = jwtUtil.getOpenIdFromToken(refreshToken);
+            Long userId = principal.getUserId();
+            String openId = principal.getOpenId();
 
             // 检查用户是否仍然有效
             User user = userService.findById(userId);
@@ -187,31 +279,76 @@ public class AuthController {
     /**
      * 用户登出
      *
+     * @param refreshToken 刷新Token（可选，一并吊销）
      * @return 登出结果
      */
     @PostMapping("/logout")
-    public ApiResult<Void> logout() {
-        // TODO: 将Token加入黑名单
-        return ApiResult.success("登出成功");
+    public ApiResult<Void> logout(@RequestParam(required = false) String refreshToken) {
+        try {
+            // 吊销当前访问Token
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.getPrincipal() instanceof JwtPrincipal) {
+                tokenRevocationService.revoke((JwtPrincipal) authentication.getPrincipal());
+            }
+
+            // 吊销刷新Token
+            if (StringUtils.hasText(refreshToken)) {
+                JwtPrincipal refreshPrincipal = jwtTokenVerifier.verify(refreshToken);
+                if (refreshPrincipal != null && refreshPrincipal.isRefreshToken()) {
+                    tokenRevocationService.revoke(refreshPrincipal);
+                }
+            }
+
+            return ApiResult.success("登出成功");
+        } catch (Exception e) {
+            log.error("用户登出失败", e);
+            return ApiResult.error("登出失败");
+        }
     }
 
     /**
-     * 获取当前用户信息
+     * 获取当前用户信息（从用户缓存读取）
      *
      * @return 用户信息
      */
     @GetMapping("/me")
     public ApiResult<User.UserInfo> getCurrentUser() {
         try {
-            // TODO: 从Security上下文获取用户信息
-            // User user = userService.getCurrentUser();
-            // return ApiResult.success(user.getUserInfo());
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication == null || !(authentication.getPrincipal() instanceof JwtPrincipal)) {
+                return ApiResult.failed(ResultCode.UNAUTHORIZED);
+            }
 
-            // 临时实现
-            return ApiResult.success("获取用户信息成功", null);
+            User user = userService.findById(((JwtPrincipal) authentication.getPrincipal()).getUserId());
+            if (user == null) {
+                return ApiResult.failed(ResultCode.USER_NOT_FOUND);
+            }
+            if (user.getStatus() == null || user.getStatus() != User.Status.ACTIVE) {
+                return ApiResult.failed(ResultCode.USER_DISABLED);
+            }
+
+            return ApiResult.success("获取用户信息成功", userConverter.toUserInfo(user));
         } catch (Exception e) {
             log.error("获取当前用户信息失败", e);
             return ApiResult.failed(ResultCode.SYSTEM_ERROR);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 查找二维码矩阵：优先使用本节点发放时的矩阵，否则在state仍有效时重新编码
+     */
+    private BitMatrix findQrCode(String state) {
+        BitMatrix modules = qrCodePool.getIssued(state);
+        if (modules == null && qrLoginStateService.exists(state)) {
+            modules = qrCodePool.encode(state);
+        }
+        return modules;
+    }
+
+    private ResponseEntity<byte[]> qrCodeImage(MediaType mediaType, byte[] body) {
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .cacheControl(CacheControl.maxAge(weChatConfig.getQrExpireSeconds(), TimeUnit.SECONDS).cachePrivate())
+                .body(body);
+    }
+}
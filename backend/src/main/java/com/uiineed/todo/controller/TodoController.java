@@ -6,24 +6,57 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.uiineed.todo.common.ApiResult;
 import com.uiineed.todo.common.ResultCode;
 import com.uiineed.todo.entity.Todo;
+import com.uiineed.todo.config.MybatisPlusConfig;
+import com.uiineed.todo.converter.TodoConverter;
+import com.uiineed.todo.service.TodoCounterService;
+import com.uiineed.todo.service.TodoEventService;
+import com.uiineed.todo.service.TodoExportService;
+import com.uiineed.todo.service.TodoImportService;
 import com.uiineed.todo.service.TodoService;
+import com.uiineed.todo.service.TodoSyncService;
+import com.uiineed.todo.util.PageCursor;
+import com.uiineed.todo.util.TodoFields;
+import com.uiineed.todo.vo.PageResponse;
+import com.uiineed.todo.vo.TodoChangesResponse;
 import com.uiineed.todo.vo.TodoCreateRequest;
+import com.uiineed.todo.vo.TodoImportResponse;
 import com.uiineed.todo.vo.TodoUpdateRequest;
 import com.uiineed.todo.vo.TodoResponse;
+import com.uiineed.todo.vo.TodoStatsResponse;
+import com.uiineed.todo.vo.TodoSyncRequest;
+import com.uiineed.todo.vo.TodoSyncResponse;
+import com.uiineed.todo.web.ConditionalGet;
+import com.uiineed.todo.web.TodoListVersionProvider;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * 待办事项控制器
@@ -41,46 +74,353 @@ public class TodoController {
     @Autowired
     private TodoService todoService;
 
+    @Autowired
+    private TodoCounterService todoCounterService;
+
+    @Autowired
+    private TodoConverter todoConverter;
+
+    @Autowired
+    private TodoExportService todoExportService;
+
+    @Autowired
+    private TodoImportService todoImportService;
+
+    @Autowired
+    private TodoEventService todoEventService;
+
+    @Autowired
+    private TodoSyncService todoSyncService;
+
     /**
      * 获取待办事项列表
      *
      * @param status 状态过滤
      * @param page 页码
      * @param size 每页大小
-     * @return 待办事项列表
+     * @param fields 返回字段，逗号分隔，compact表示列表视图的精简字段，为空时返回全部字段
+     * @return 待办事项列表（cursor可用于以游标方式继续读取下一页）
      */
+    @ConditionalGet(TodoListVersionProvider.class)
     @GetMapping
-    public ApiResult<IPage<TodoResponse>> getTodos(
+    public ApiResult<PageResponse<TodoResponse>> getTodos(
             @RequestParam(required = false) Integer status,
             @RequestParam(defaultValue = "1") @Min(1) Integer page,
-            @RequestParam(defaultValue = "20") @Min(1) Integer size) {
+            @RequestParam(defaultValue = "20") @Min(1) @Max(MybatisPlusConfig.MAX_PAGE_SIZE) Integer size,
+            @RequestParam(required = false) String fields) {
 
         try {
             // 获取当前用户ID
             Long userId = getCurrentUserId();
+            TodoFields todoFields = TodoFields.parse(fields);
 
             // 创建分页对象
             Page<Todo> pageParam = new Page<>(page, size);
 
             // 查询待办事项
-            IPage<Todo> todoPage = todoService.getTodosByUserId(userId, status, pageParam);
+            IPage<Todo> todoPage = todoService.getTodosByUserId(userId, status, pageParam, todoFields);
 
-            // 转换为响应对象
-            IPage<TodoResponse> responsePage = todoPage.convert(this::convertToResponse);
+            boolean hasMore = todoPage.getCurrent() * todoPage.getSize() < todoPage.getTotal();
+            return ApiResult.success(toPageResponse(todoPage.getRecords(), hasMore, todoPage.getTotal(),
+                    this::activeCursor, todoFields));
+        } catch (IllegalArgumentException e) {
+            return ApiResult.validateFailed(e.getMessage());
+        } catch (Exception e) {
+            log.error("获取待办事项列表失败", e);
+            return ApiResult.error("获取待办事项列表失败");
+        }
+    }
+
+    /**
+     * 游标方式获取待办事项列表
+     *
+     * @param status 状态过滤
+     * @param cursor 上一页返回的游标，为空时从第一页开始
+     * @param size 每页大小
+     * @param fields 返回字段，逗号分隔，compact表示列表视图的精简字段，为空时返回全部字段
+     * @return 待办事项列表
+     */
+    @ConditionalGet(TodoListVersionProvider.class)
+    @GetMapping(params = "cursor")
+    public ApiResult<PageResponse<TodoResponse>> getTodosByCursor(
+            @RequestParam(required = false) Integer status,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(MybatisPlusConfig.MAX_PAGE_SIZE) Integer size,
+            @RequestParam(required = false) String fields) {
 
-            return ApiResult.success(responsePage);
+        try {
+            Long userId = getCurrentUserId();
+            PageCursor pageCursor = PageCursor.decode(cursor, PageCursor.ACTIVE);
+            TodoFields todoFields = TodoFields.parse(fields);
+
+            List<Todo> todos = todoService.getTodosByCursor(userId, status, pageCursor, size, todoFields);
+            boolean hasMore = todos.size() > size;
+            return ApiResult.success(toPageResponse(hasMore ? todos.subList(0, size) : todos, hasMore,
+                    todoCounterService.countActive(userId, status), this::activeCursor, todoFields));
+        } catch (IllegalArgumentException e) {
+            return ApiResult.validateFailed(e.getMessage());
         } catch (Exception e) {
             log.error("获取待办事项列表失败", e);
             return ApiResult.error("获取待办事项列表失败");
         }
     }
 
+    /**
+     * 获取待办事项统计（总数、各状态数量、逾期数量、回收站数量）
+     *
+     * <p>不使用条件请求：逾期数量随时间变化，校正任务也会修正计数，列表版本号不变时统计结果仍可能不同。</p>
+     *
+     * @return 统计信息
+     */
+    @GetMapping("/stats")
+    public ApiResult<TodoStatsResponse> getStats() {
+        try {
+            Long userId = getCurrentUserId();
+            return ApiResult.success(todoCounterService.getStats(userId));
+        } catch (Exception e) {
+            log.error("获取待办事项统计失败", e);
+            return ApiResult.error("获取待办事项统计失败");
+        }
+    }
+
+    /**
+     * 获取今日到期的待办事项
+     *
+     * @return 待办事项列表
+     */
+    @GetMapping("/today")
+    public ApiResult<List<TodoResponse>> getTodayTodos() {
+        try {
+            Long userId = getCurrentUserId();
+            return ApiResult.success(todoConverter.toResponses(todoService.getTodayTodos(userId)));
+        } catch (Exception e) {
+            log.error("获取今日待办事项失败", e);
+            return ApiResult.error("获取今日待办事项失败");
+        }
+    }
+
+    /**
+     * 获取已逾期的待办事项
+     *
+     * @return 待办事项列表
+     */
+    @GetMapping("/overdue")
+    public ApiResult<List<TodoResponse>> getOverdueTodos() {
+        try {
+            Long userId = getCurrentUserId();
+            return ApiResult.success(todoConverter.toResponses(todoService.getOverdueTodos(userId)));
+        } catch (Exception e) {
+            log.error("获取逾期待办事项失败", e);
+            return ApiResult.error("获取逾期待办事项失败");
+        }
+    }
+
+    /**
+     * 获取即将到期的待办事项
+     *
+     * @param days 天数（从明天起）
+     * @return 待办事项列表
+     */
+    @GetMapping("/upcoming")
+    public ApiResult<List<TodoResponse>> getUpcomingTodos(
+            @RequestParam(defaultValue = "7") @Min(1) @Max(30) Integer days) {
+        try {
+            Long userId = getCurrentUserId();
+            return ApiResult.success(todoConverter.toResponses(todoService.getUpcomingTodos(userId, days)));
+        } catch (Exception e) {
+            log.error("获取即将到期待办事项失败", e);
+            return ApiResult.error("获取即将到期待办事项失败");
+        }
+    }
+
+    /**
+     * 搜索待办事项（标题和描述，标题命中的排在前面）
+     *
+     * @param q 关键词，多个词以空格分隔
+     * @param limit 最大返回数量
+     * @return 命中的待办事项
+     */
+    @ConditionalGet(TodoListVersionProvider.class)
+    @GetMapping("/search")
+    public ApiResult<List<TodoResponse>> searchTodos(
+            @RequestParam @NotBlank @Size(max = 100) String q,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(MybatisPlusConfig.MAX_PAGE_SIZE) Integer limit) {
+        try {
+            Long userId = getCurrentUserId();
+            return ApiResult.success(todoConverter.toResponses(todoService.searchTodos(userId, q, limit)));
+        } catch (Exception e) {
+            log.error("搜索待办事项失败", e);
+            return ApiResult.error("搜索待办事项失败");
+        }
+    }
+
+    /**
+     * 导出待办事项
+     *
+     * <p>边查询边写出（分块传输），客户端支持gzip时在写出时压缩。</p>
+     *
+     * @param format 导出格式：ndjson、csv
+     * @param includeTrashed 是否包含回收站中的待办事项
+     * @param acceptEncoding 客户端支持的压缩方式
+     * @return 导出文件
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTodos(
+            @RequestParam(defaultValue = TodoExportService.NDJSON) @Pattern(regexp = "ndjson|csv") String format,
+            @RequestParam(defaultValue = "false") Boolean includeTrashed,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        // 输出在异步线程中执行，用户ID需在请求线程中取出
+        Long userId = getCurrentUserId();
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+
+        StreamingResponseBody body = outputStream -> {
+            try {
+                if (gzip) {
+                    GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream, 8192);
+                    todoExportService.export(userId, format, includeTrashed, gzipOutputStream);
+                    gzipOutputStream.finish();
+                } else {
+                    todoExportService.export(userId, format, includeTrashed, outputStream);
+                }
+            } catch (IOException e) {
+                log.warn("导出待办事项中断: userId={}, {}", userId, e.getMessage());
+                throw e;
+            }
+        };
+
+        MediaType mediaType = TodoExportService.CSV.equals(format)
+                ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                : new MediaType("application", "x-ndjson", StandardCharsets.UTF_8);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(mediaType)
+                .cacheControl(CacheControl.noStore())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("todos-" + LocalDate.now() + "." + format).build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    /**
+     * 批量导入待办事项
+     *
+     * <p>请求体为JSON数组或NDJSON，边读取边校验、分批写入；单个条目失败不影响其余条目，
+     * 失败条目的序号和原因在结果中返回。</p>
+     *
+     * @param request HTTP请求
+     * @return 导入结果
+     */
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"})
+    public ApiResult<TodoImportResponse> importTodos(HttpServletRequest request) {
+        try {
+            Long userId = getCurrentUserId();
+            return ApiResult.success("导入完成", todoImportService.importTodos(userId, request.getInputStream()));
+        } catch (Exception e) {
+            log.error("导入待办事项失败", e);
+            return ApiResult.error("导入待办事项失败");
+        }
+    }
+
+    /**
+     * 增量同步：获取某个同步位置之后变化的待办事项
+     *
+     * <p>不传since时从头返回全部待办事项；之后每次传入上次返回的token，
+     * 只返回期间新建、修改、完成、删除、恢复的待办事项和已永久删除的ID。</p>
+     *
+     * @param since 上次返回的同步位置
+     * @param limit 单次最大返回数量
+     * @return 变化的待办事项
+     */
+    @GetMapping("/changes")
+    public ApiResult<TodoChangesResponse> getChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "200") @Min(1) @Max(1000) Integer limit) {
+        try {
+            Long userId = getCurrentUserId();
+            PageCursor cursor = PageCursor.decode(since, PageCursor.CHANGES);
+
+            List<Todo> rows = todoService.getChangesSince(userId, cursor, limit);
+            return ApiResult.success(toChangesResponse(rows, since, limit));
+        } catch (IllegalArgumentException e) {
+            return ApiResult.validateFailed(e.getMessage());
+        } catch (Exception e) {
+            log.error("获取待办事项变化失败", e);
+            return ApiResult.error("获取待办事项变化失败");
+        }
+    }
+
+    /**
+     * 离线同步：在一个事务中按顺序执行客户端排队的操作，并返回服务端的变化
+     *
+     * <p>操作可以是 create、update、complete、uncomplete、delete、restore、reorder；
+     * 带 baseVersion 的操作在服务端版本更新时不执行并返回 conflict。
+     * 响应中的变化与增量同步接口相同，包含本次同步的结果，客户端用它覆盖本地状态。</p>
+     *
+     * @param request 操作日志和上次同步位置
+     * @return 每个操作的结果和服务端的变化
+     */
+    @PostMapping("/sync")
+    public ApiResult<TodoSyncResponse> sync(@Valid @RequestBody TodoSyncRequest request) {
+        try {
+            Long userId = getCurrentUserId();
+            PageCursor cursor = PageCursor.decode(request.getSince(), PageCursor.CHANGES);
+
+            TodoSyncResponse response = new TodoSyncResponse();
+            response.setResults(todoSyncService.apply(userId, request.getOperations()));
+
+            // 事务已提交，变化中包含本次同步写入的行及其新版本
+            List<Todo> rows = todoService.getChangesSince(userId, cursor, request.getLimit());
+            response.setChanges(toChangesResponse(rows, request.getSince(), request.getLimit()));
+            return ApiResult.success(response);
+        } catch (IllegalArgumentException e) {
+            return ApiResult.validateFailed(e.getMessage());
+        } catch (Exception e) {
+            log.error("离线同步失败", e);
+            return ApiResult.error("离线同步失败");
+        }
+    }
+
+    /**
+     * 订阅待办事项变更（Server-Sent Events）
+     *
+     * <p>每次修改推送一个事件：事件名为 saved、removed 或 purged，事件ID为变更序号，
+     * 数据为变化的待办事项ID。断线重连时携带 Last-Event-ID 补发期间的变更；
+     * 收到 reset 事件时应调用增量同步接口。</p>
+     *
+     * @param lastEventId 客户端收到的最后一个事件ID
+     * @return 事件流
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribeEvents(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        Long userId = getCurrentUserId();
+        Long since = null;
+        if (lastEventId != null && !lastEventId.isEmpty()) {
+            try {
+                since = Long.valueOf(lastEventId);
+            } catch (NumberFormatException e) {
+                // 无法识别的事件ID按首次连接处理
+                log.debug("忽略无效的Last-Event-ID: {}", lastEventId);
+            }
+        }
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                // 关闭Nginx对该响应的缓冲，事件立即送达
+                .header("X-Accel-Buffering", "no")
+                .body(todoEventService.subscribe(userId, since));
+    }
+
     /**
      * 获取单个待办事项
      *
      * @param id 待办事项ID
      * @return 待办事项详情
      */
+    @ConditionalGet(TodoListVersionProvider.class)
     @GetMapping("/{id}")
     public ApiResult<TodoResponse> getTodo(@PathVariable @NotNull Long id) {
         try {
@@ -91,7 +431,7 @@ public class TodoController {
                 return ApiResult.failed(ResultCode.TODO_NOT_FOUND);
             }
 
-            return ApiResult.success(convertToResponse(todo));
+            return ApiResult.success(todoConverter.toResponse(todo));
         } catch (Exception e) {
             log.error("获取待办事项失败: id={}", id, e);
             return ApiResult.error("获取待办事项失败");
@@ -109,20 +449,9 @@ public class TodoController {
         try {
             Long userId = getCurrentUserId();
 
-            Todo todo = new Todo();
-            todo.setUserId(userId);
-            todo.setTitle(request.getTitle());
-            todo.setDescription(request.getDescription());
-            todo.setPriority(request.getPriority());
-            todo.setDueDate(request.getDueDate());
-            todo.setReminderTime(request.getReminderTime());
-            todo.setCategoryId(request.getCategoryId());
-            todo.setStatus(Todo.Status.TODO);
-            todo.setIsDeleted(0);
-            todo.setDeleted(0);
-
+            Todo todo = todoConverter.toEntity(request, userId);
             Todo createdTodo = todoService.createTodo(todo);
-            return ApiResult.success("创建成功", convertToResponse(createdTodo));
+            return ApiResult.success("创建成功", todoConverter.toResponse(createdTodo));
         } catch (Exception e) {
             log.error("创建待办事项失败", e);
             return ApiResult.error("创建待办事项失败");
@@ -144,25 +473,14 @@ public class TodoController {
         try {
             Long userId = getCurrentUserId();
 
-            // 检查待办事项是否存在且属于当前用户
-            Todo existTodo = todoService.getTodoByIdAndUserId(id, userId);
-            if (existTodo == null) {
-                return ApiResult.failed(ResultCode.TODO_NOT_FOUND);
-            }
-
-            // 更新待办事项
-            Todo updateTodo = new Todo();
-            updateTodo.setId(id);
-            updateTodo.setTitle(request.getTitle());
-            updateTodo.setDescription(request.getDescription());
-            updateTodo.setPriority(request.getPriority());
-            updateTodo.setDueDate(request.getDueDate());
-            updateTodo.setReminderTime(request.getReminderTime());
-            updateTodo.setCategoryId(request.getCategoryId());
-            updateTodo.setStatus(request.getStatus());
+            // 更新待办事项（不存在或不属于当前用户时返回null）
+            Todo updateTodo = todoConverter.toEntity(request, id, userId);
 
             Todo updatedTodo = todoService.updateTodo(updateTodo);
-            return ApiResult.success("更新成功", convertToResponse(updatedTodo));
+            if (updatedTodo == null) {
+                return ApiResult.failed(ResultCode.TODO_NOT_FOUND);
+            }
+            return ApiResult.success("更新成功", todoConverter.toResponse(updatedTodo));
         } catch (Exception e) {
             log.error("更新待办事项失败: id={}", id, e);
             return ApiResult.error("更新待办事项失败");
@@ -180,12 +498,9 @@ public class TodoController {
         try {
             Long userId = getCurrentUserId();
 
-            Todo todo = todoService.getTodoByIdAndUserId(id, userId);
-            if (todo == null) {
+            if (!todoService.markAsCompleted(id, userId)) {
                 return ApiResult.failed(ResultCode.TODO_NOT_FOUND);
             }
-
-            todoService.markAsCompleted(id);
             return ApiResult.success("标记完成成功");
         } catch (Exception e) {
             log.error("标记待办事项完成失败: id={}", id, e);
@@ -204,12 +519,9 @@ public class TodoController {
         try {
             Long userId = getCurrentUserId();
 
-            Todo todo = todoService.getTodoByIdAndUserId(id, userId);
-            if (todo == null) {
+            if (!todoService.markAsUncompleted(id, userId)) {
                 return ApiResult.failed(ResultCode.TODO_NOT_FOUND);
             }
-
-            todoService.markAsUncompleted(id);
             return ApiResult.success("标记未完成成功");
         } catch (Exception e) {
             log.error("标记待办事项未完成失败: id={}", id, e);
@@ -228,12 +540,9 @@ public class TodoController {
         try {
             Long userId = getCurrentUserId();
 
-            Todo todo = todoService.getTodoByIdAndUserId(id, userId);
-            if (todo == null) {
+            if (!todoService.softDeleteTodo(id, userId)) {
                 return ApiResult.failed(ResultCode.TODO_NOT_FOUND);
             }
-
-            todoService.softDeleteTodo(id);
             return ApiResult.success("删除成功");
         } catch (Exception e) {
             log.error("删除待办事项失败: id={}", id, e);
@@ -252,19 +561,49 @@ public class TodoController {
         try {
             Long userId = getCurrentUserId();
 
-            Todo todo = todoService.getDeletedTodoByIdAndUserId(id, userId);
-            if (todo == null) {
+            Todo restoredTodo = todoService.restoreTodo(id, userId);
+            if (restoredTodo == null) {
                 return ApiResult.failed(ResultCode.TODO_NOT_FOUND);
             }
-
-            Todo restoredTodo = todoService.restoreTodo(id);
-            return ApiResult.success("恢复成功", convertToResponse(restoredTodo));
+            return ApiResult.success("恢复成功", todoConverter.toResponse(restoredTodo));
         } catch (Exception e) {
             log.error("恢复待办事项失败: id={}", id, e);
             return ApiResult.error("恢复失败");
         }
     }
 
+    /**
+     * 拖动排序：把待办事项移到 after 和 before 之间
+     *
+     * <p>只改写被移动的这一行。只传 after 时紧跟在 after 之后，只传 before 时紧挨在 before 之前，
+     * 都不传时移到末尾。</p>
+     *
+     * @param id 待办事项ID
+     * @param after 移动后排在它前面的待办事项ID
+     * @param before 移动后排在它后面的待办事项ID
+     * @return 移动后的待办事项
+     */
+    @PutMapping("/{id}/move")
+    public ApiResult<TodoResponse> moveTodo(
+            @PathVariable @NotNull Long id,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Long before) {
+        try {
+            Long userId = getCurrentUserId();
+
+            Todo movedTodo = todoService.moveTodo(id, userId, after, before);
+            if (movedTodo == null) {
+                return ApiResult.failed(ResultCode.TODO_NOT_FOUND);
+            }
+            return ApiResult.success("移动成功", todoConverter.toResponse(movedTodo));
+        } catch (IllegalArgumentException e) {
+            return ApiResult.validateFailed(e.getMessage());
+        } catch (Exception e) {
+            log.error("移动待办事项失败: id={}", id, e);
+            return ApiResult.error("移动失败");
+        }
+    }
+
     /**
      * 批量操作待办事项
      *
@@ -306,17 +645,48 @@ public class TodoController {
      * @param size 每页大小
      * @return 回收站待办事项列表
      */
+    @ConditionalGet(TodoListVersionProvider.class)
     @GetMapping("/trash")
-    public ApiResult<IPage<TodoResponse>> getTrashTodos(
+    public ApiResult<PageResponse<TodoResponse>> getTrashTodos(
             @RequestParam(defaultValue = "1") @Min(1) Integer page,
-            @RequestParam(defaultValue = "20") @Min(1) Integer size) {
+            @RequestParam(defaultValue = "20") @Min(1) @Max(MybatisPlusConfig.MAX_PAGE_SIZE) Integer size) {
 
         try {
             Long userId = getCurrentUserId();
             Page<Todo> pageParam = new Page<>(page, size);
             IPage<Todo> todoPage = todoService.getDeletedTodosByUserId(userId, pageParam);
-            IPage<TodoResponse> responsePage = todoPage.convert(this::convertToResponse);
-            return ApiResult.success(responsePage);
+            boolean hasMore = todoPage.getCurrent() * todoPage.getSize() < todoPage.getTotal();
+            return ApiResult.success(toPageResponse(todoPage.getRecords(), hasMore, todoPage.getTotal(),
+                    this::trashCursor, TodoFields.ALL));
+        } catch (Exception e) {
+            log.error("获取回收站待办事项失败", e);
+            return ApiResult.error("获取回收站待办事项失败");
+        }
+    }
+
+    /**
+     * 游标方式获取回收站待办事项
+     *
+     * @param cursor 上一页返回的游标，为空时从第一页开始
+     * @param size 每页大小
+     * @return 回收站待办事项列表
+     */
+    @ConditionalGet(TodoListVersionProvider.class)
+    @GetMapping(value = "/trash", params = "cursor")
+    public ApiResult<PageResponse<TodoResponse>> getTrashTodosByCursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(MybatisPlusConfig.MAX_PAGE_SIZE) Integer size) {
+
+        try {
+            Long userId = getCurrentUserId();
+            PageCursor pageCursor = PageCursor.decode(cursor, PageCursor.TRASH);
+
+            List<Todo> todos = todoService.getDeletedTodosByCursor(userId, pageCursor, size);
+            boolean hasMore = todos.size() > size;
+            return ApiResult.success(toPageResponse(hasMore ? todos.subList(0, size) : todos, hasMore,
+                    todoCounterService.countTrashed(userId), this::trashCursor, TodoFields.ALL));
+        } catch (IllegalArgumentException e) {
+            return ApiResult.validateFailed(e.getMessage());
         } catch (Exception e) {
             log.error("获取回收站待办事项失败", e);
             return ApiResult.error("获取回收站待办事项失败");
@@ -324,14 +694,54 @@ public class TodoController {
     }
 
     /**
-     * 转换为响应对象
+     * 组装分页响应
      *
-     * @param todo 待办事项实体
-     * @return 响应对象
+     * @param records 当前页记录
+     * @param hasMore 是否还有下一页
+     * @param total 总记录数（可为null）
+     * @param cursorOf 根据最后一条记录生成续读游标
+     * @param fields 字段投影
+     * @return 分页响应
      */
-    private TodoResponse convertToResponse(Todo todo) {
-        TodoResponse response = new TodoResponse();
-        BeanUtils.copyProperties(todo, response);
+    private PageResponse<TodoResponse> toPageResponse(List<Todo> records, boolean hasMore, Long total,
+                                                      Function<Todo, PageCursor> cursorOf, TodoFields fields) {
+        PageResponse<TodoResponse> response = new PageResponse<>();
+        response.setItems(fields.isAll() ? todoConverter.toResponses(records)
+                : records.stream().map(fields::toResponse).collect(Collectors.toList()));
+        response.setTotal(total);
+        if (hasMore && !records.isEmpty()) {
+            response.setCursor(cursorOf.apply(records.get(records.size() - 1)).encode());
+        }
+        return response;
+    }
+
+    private PageCursor activeCursor(Todo todo) {
+        return new PageCursor(PageCursor.ACTIVE, todo.getSortOrder(), todo.getCreatedAt(), todo.getId());
+    }
+
+    private PageCursor trashCursor(Todo todo) {
+        return new PageCursor(PageCursor.TRASH, null, todo.getDeletedAt(), todo.getId());
+    }
+
+    /**
+     * 构建增量同步响应：已永久删除的行只返回ID，token 指向最后一行
+     */
+    private TodoChangesResponse toChangesResponse(List<Todo> rows, String since, int limit) {
+        TodoChangesResponse response = new TodoChangesResponse();
+        response.setChanges(todoConverter.toResponses(rows.stream()
+                .filter(todo -> !Integer.valueOf(1).equals(todo.getDeleted()))
+                .collect(Collectors.toList())));
+        response.setDeletedIds(rows.stream()
+                .filter(todo -> Integer.valueOf(1).equals(todo.getDeleted()))
+                .map(Todo::getId)
+                .collect(Collectors.toList()));
+        response.setHasMore(rows.size() >= limit);
+        if (rows.isEmpty()) {
+            response.setToken(since != null ? since : new PageCursor(PageCursor.CHANGES, 0L, null, 0L).encode());
+        } else {
+            Todo last = rows.get(rows.size() - 1);
+            response.setToken(new PageCursor(PageCursor.CHANGES, last.getChangeSeq(), null, last.getId()).encode());
+        }
         return response;
     }
 
@@ -0,0 +1,115 @@
+package com.uiineed.todo.converter;
+
+import com.uiineed.todo.entity.Todo;
+import com.uiineed.todo.vo.TodoCreateRequest;
+import com.uiineed.todo.vo.TodoResponse;
+import com.uiineed.todo.vo.TodoSyncOperation;
+import com.uiineed.todo.vo.TodoUpdateRequest;
+import org.mapstruct.BeanMapping;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.NullValuePropertyMappingStrategy;
+import org.mapstruct.ReportingPolicy;
+
+import java.util.List;
+
+/**
+ * 待办事项实体与VO转换器
+ *
+ * <p>实现类由MapStruct在编译期生成，直接调用getter/setter，不使用反射。</p>
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
+public interface TodoConverter {
+
+    /**
+     * 转换为响应对象（completed、removed 取自 {@link Todo#isCompleted()}、{@link Todo#isRemoved()}）
+     *
+     * @param todo 待办事项实体
+     * @return 响应对象
+     */
+    @Mapping(target = "completed", expression = "java(todo.isCompleted())")
+    @Mapping(target = "removed", expression = "java(todo.isRemoved())")
+    @Mapping(target = "version", source = "contentSeq")
+    TodoResponse toResponse(Todo todo);
+
+    /**
+     * 批量转换为响应对象
+     *
+     * @param todos 待办事项实体列表
+     * @return 响应对象列表
+     */
+    List<TodoResponse> toResponses(List<Todo> todos);
+
+    /**
+     * 根据创建请求构建待办事项
+     *
+     * @param request 创建请求
+     * @param userId 用户ID
+     * @return 待建的待办事项（状态为待办，未删除）
+     */
+    @Mapping(target = "userId", source = "userId")
+    @Mapping(target = "status", expression = "java(Todo.Status.TODO)")
+    @Mapping(target = "isDeleted", constant = "0")
+    @Mapping(target = "deleted", constant = "0")
+    Todo toEntity(TodoCreateRequest request, Long userId);
+
+    /**
+     * 根据更新请求构建待办事项（请求中为空的字段不更新）
+     *
+     * @param request 更新请求
+     * @param id 待办事项ID
+     * @param userId 用户ID
+     * @return 待更新的字段
+     */
+    @Mapping(target = "id", source = "id")
+    @Mapping(target = "userId", source = "userId")
+    Todo toEntity(TodoUpdateRequest request, Long id, Long userId);
+
+    /**
+     * 根据离线同步的 create 操作构建待办事项
+     *
+     * @param operation 同步操作
+     * @param userId 用户ID
+     * @return 待建的待办事项（状态为待办，未删除）
+     */
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "userId", source = "userId")
+    @Mapping(target = "status", expression = "java(Todo.Status.TODO)")
+    @Mapping(target = "isDeleted", constant = "0")
+    @Mapping(target = "deleted", constant = "0")
+    Todo toEntity(TodoSyncOperation operation, Long userId);
+
+    /**
+     * 根据离线同步的 update 操作构建待办事项（操作中为空的字段不更新）
+     *
+     * @param operation 同步操作
+     * @param id 待办事项ID
+     * @param userId 用户ID
+     * @return 待更新的字段
+     */
+    @Mapping(target = "id", source = "id")
+    @Mapping(target = "userId", source = "userId")
+    @Mapping(target = "sortOrder", ignore = true)
+    Todo toEntity(TodoSyncOperation operation, Long id, Long userId);
+
+    /**
+     * 复制待办事项
+     *
+     * @param todo 待办事项实体
+     * @return 副本
+     */
+    Todo copy(Todo todo);
+
+    /**
+     * 把修改的字段合并到目标对象（为空的字段保持不变）
+     *
+     * @param changes 修改的字段
+     * @param target 目标对象
+     */
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    void merge(Todo changes, @MappingTarget Todo target);
+}
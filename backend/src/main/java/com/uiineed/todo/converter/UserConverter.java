@@ -0,0 +1,23 @@
+package com.uiineed.todo.converter;
+
+import com.uiineed.todo.entity.User;
+import org.mapstruct.Mapper;
+import org.mapstruct.ReportingPolicy;
+
+/**
+ * 用户实体与VO转换器
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
+public interface UserConverter {
+
+    /**
+     * 转换为用户信息简版
+     *
+     * @param user 用户实体
+     * @return 用户信息
+     */
+    User.UserInfo toUserInfo(User user);
+}
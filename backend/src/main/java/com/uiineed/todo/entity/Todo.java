@@ -2,6 +2,7 @@ package com.uiineed.todo.entity;
 
 import com.baomidou.mybatisplus.annotation.*;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
@@ -92,10 +93,10 @@ public class Todo {
     private LocalDateTime reminderTime;
 
     /**
-     * 排序序号
+     * 排序序号（稀疏排名，相邻两项之间留有间隔，拖动排序只改一行）
      */
-    @Column(name = "sort_order")
-    private Integer sortOrder;
+    @Column(name = "sort_order", nullable = false, columnDefinition = "bigint NOT NULL DEFAULT '0'")
+    private Long sortOrder;
 
     /**
      * 是否删除：0-未删除，1-已删除（保持与前端兼容）
@@ -126,6 +127,18 @@ public class Todo {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    /**
+     * 变更序号：同一用户的待办事项每次修改时递增，用于增量同步
+     */
+    @Column(name = "change_seq", nullable = false, columnDefinition = "bigint NOT NULL DEFAULT '0'")
+    private Long changeSeq;
+
+    /**
+     * 内容版本：最后一次修改内容时的变更序号，离线同步以此判断冲突；后台重排排序序号不修改
+     */
+    @Column(name = "content_seq", nullable = false, columnDefinition = "bigint NOT NULL DEFAULT '0'")
+    private Long contentSeq;
+
     /**
      * 删除标识：0-未删除，1-已删除
      */
@@ -156,6 +169,7 @@ public class Todo {
      * 兼容前端的完成状态
      * @return 是否已完成
      */
+    @JsonIgnore
     public boolean isCompleted() {
         return Status.COMPLETED == this.status;
     }
@@ -164,6 +178,7 @@ public class Todo {
      * 兼容前端的删除状态
      * @return 是否已删除
      */
+    @JsonIgnore
     public boolean isRemoved() {
         return (Integer.valueOf(1).equals(this.isDeleted) || Integer.valueOf(1).equals(this.deleted));
     }
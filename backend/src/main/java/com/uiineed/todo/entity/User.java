@@ -2,6 +2,7 @@ package com.uiineed.todo.entity;
 
 import com.baomidou.mybatisplus.annotation.*;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
@@ -104,6 +105,15 @@ public class User {
     @Column(name = "status")
     private Integer status;
 
+    /**
+     * 待办事项最新变更序号：只由 UserMapper#incrementChangeSeq 原子递增，
+     * 实体的查询和更新都不包含该列，避免缓存中的旧值覆盖数据库
+     */
+    @JsonIgnore
+    @TableField(select = false, insertStrategy = FieldStrategy.NEVER, updateStrategy = FieldStrategy.NEVER)
+    @Column(name = "change_seq", nullable = false, columnDefinition = "bigint NOT NULL DEFAULT '0'")
+    private Long changeSeq;
+
     /**
      * 创建时间
      */
@@ -169,18 +179,4 @@ public class User {
          */
         private String language;
     }
-
-    /**
-     * 获取用户信息
-     *
-     * @return 用户信息
-     */
-    public UserInfo getUserInfo() {
-        UserInfo userInfo = new UserInfo();
-        userInfo.setId(this.id);
-        userInfo.setNickname(this.nickname);
-        userInfo.setAvatarUrl(this.avatarUrl);
-        userInfo.setLanguage(this.language);
-        return userInfo;
-    }
-}
\ No newline at end of file
+}
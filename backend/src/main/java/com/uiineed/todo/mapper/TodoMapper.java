@@ -2,7 +2,19 @@ package com.uiineed.todo.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.uiineed.todo.entity.Todo;
+import lombok.Data;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 
 /**
  * 待办事项数据访问层
@@ -12,4 +24,162 @@ import org.apache.ibatis.annotations.Mapper;
  */
 @Mapper
 public interface TodoMapper extends BaseMapper<Todo> {
-}
\ No newline at end of file
+
+    /**
+     * 按 (is_deleted, status) 分组统计用户的待办事项数量（走 idx_user_status 索引范围扫描）
+     *
+     * @param userId 用户ID
+     * @return 每组一行：isDeleted、status、count
+     */
+    @Select("SELECT is_deleted AS isDeleted, status, COUNT(*) AS count FROM todos "
+            + "WHERE user_id = #{userId} AND deleted = 0 GROUP BY is_deleted, status")
+    List<Map<String, Object>> countGroupByStatus(@Param("userId") Long userId);
+
+    /**
+     * 流式读取用户的全部待办事项（按ID顺序）
+     *
+     * <p>fetchSize 为 Integer.MIN_VALUE 时 MySQL 驱动逐行返回结果，不在内存中缓存整个结果集。
+     * 游标须在事务（同一个SqlSession）内遍历完毕。</p>
+     *
+     * @param userId 用户ID
+     * @param includeTrashed 是否包含回收站中的待办事项
+     * @return 结果游标
+     */
+    @Select("<script>SELECT id, user_id, category_id, title, description, priority, status, completed_at, "
+            + "due_date, reminder_time, sort_order, is_deleted, deleted_at, created_at, updated_at, deleted "
+            + "FROM todos WHERE user_id = #{userId} AND deleted = 0"
+            + "<if test='!includeTrashed'> AND is_deleted = 0</if> ORDER BY id</script>")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    Cursor<Todo> streamByUserId(@Param("userId") Long userId, @Param("includeTrashed") boolean includeTrashed);
+
+    /**
+     * 多行INSERT批量插入（一条语句插入整批，自增ID回填到每个对象）
+     *
+     * <p>自定义SQL不经过自动填充，created_at、updated_at 须由调用方设置。</p>
+     *
+     * @param todos 待插入的待办事项
+     * @return 插入行数
+     */
+    @Insert("<script>INSERT INTO todos (user_id, category_id, title, description, priority, status, completed_at, "
+            + "due_date, reminder_time, sort_order, is_deleted, deleted_at, created_at, updated_at, change_seq, "
+            + "content_seq, deleted) "
+            + "VALUES <foreach collection='list' item='t' separator=','>"
+            + "(#{t.userId}, #{t.categoryId}, #{t.title}, #{t.description}, #{t.priority}, #{t.status}, #{t.completedAt}, "
+            + "#{t.dueDate}, #{t.reminderTime}, #{t.sortOrder}, #{t.isDeleted}, #{t.deletedAt}, #{t.createdAt}, "
+            + "#{t.updatedAt}, #{t.changeSeq}, #{t.changeSeq}, 0)"
+            + "</foreach></script>")
+    @Options(useGeneratedKeys = true, keyProperty = "id", keyColumn = "id")
+    int insertBatch(@Param("list") List<Todo> todos);
+
+    /**
+     * 永久删除回收站中的待办事项（置逻辑删除标识，保留行作为增量同步的删除记录）
+     *
+     * @param userId 用户ID
+     * @param changeSeq 变更序号
+     * @return 影响行数
+     */
+    @Update("UPDATE todos SET deleted = 1, change_seq = #{changeSeq}, content_seq = #{changeSeq} "
+            + "WHERE user_id = #{userId} AND is_deleted = 1 AND deleted = 0")
+    int purgeTrash(@Param("userId") Long userId, @Param("changeSeq") Long changeSeq);
+
+    /**
+     * 批量改写排序序号（一条UPDATE，CASE按ID取值）
+     *
+     * <p>只推进 change_seq（客户端增量同步拿到新的排序序号），不修改 content_seq，
+     * 重排不会让离线同步把其他设备的修改判为冲突。</p>
+     *
+     * @param userId 用户ID
+     * @param changeSeq 变更序号
+     * @param todos 待办事项ID及新的排序序号
+     * @return 影响行数
+     */
+    @Update("<script>UPDATE todos SET change_seq = #{changeSeq}, sort_order = CASE id "
+            + "<foreach collection='list' item='t'>WHEN #{t.id} THEN #{t.sortOrder} </foreach>END "
+            + "WHERE user_id = #{userId} AND id IN "
+            + "<foreach collection='list' item='t' open='(' separator=',' close=')'>#{t.id}</foreach></script>")
+    int updateSortOrders(@Param("userId") Long userId,
+                         @Param("changeSeq") Long changeSeq,
+                         @Param("list") List<Todo> todos);
+
+    /**
+     * 读取属于该用户且处于指定回收站状态的行
+     *
+     * @param id 待办事项ID
+     * @param userId 用户ID
+     * @param isDeleted 回收站状态：0-未删除，1-在回收站中
+     * @return 待办事项，不存在、不属于该用户或状态不符时返回null
+     */
+    @Select("SELECT id, user_id, category_id, title, description, priority, status, completed_at, due_date, "
+            + "reminder_time, sort_order, is_deleted, deleted_at, created_at, updated_at, change_seq, content_seq, "
+            + "deleted FROM todos WHERE id = #{id} AND user_id = #{userId} AND is_deleted = #{isDeleted} AND deleted = 0")
+    Todo selectOwned(@Param("id") Long id,
+                     @Param("userId") Long userId,
+                     @Param("isDeleted") int isDeleted);
+
+    /**
+     * 标记完成（条件更新：属于该用户且未删除）
+     *
+     * @param mutation 待办事项ID、用户ID、变更序号、完成时间
+     * @return 影响行数，0表示不存在或不属于该用户
+     */
+    @Update("UPDATE todos SET status = 2, completed_at = #{time}, change_seq = #{changeSeq}, "
+            + "content_seq = #{changeSeq} "
+            + "WHERE id = #{id} AND user_id = #{userId} AND is_deleted = 0 AND deleted = 0")
+    int markCompleted(Mutation mutation);
+
+    /**
+     * 标记未完成（条件更新：属于该用户、未删除且已完成）
+     *
+     * @param mutation 待办事项ID、用户ID、变更序号
+     * @return 影响行数，0表示不存在、不属于该用户或未完成
+     */
+    @Update("UPDATE todos SET status = 0, completed_at = NULL, change_seq = #{changeSeq}, "
+            + "content_seq = #{changeSeq} "
+            + "WHERE id = #{id} AND user_id = #{userId} AND is_deleted = 0 AND deleted = 0 AND status = 2")
+    int markUncompleted(Mutation mutation);
+
+    /**
+     * 移入回收站（条件更新：属于该用户且未删除）
+     *
+     * @param mutation 待办事项ID、用户ID、变更序号、删除时间
+     * @return 影响行数，0表示不存在、不属于该用户或已在回收站中
+     */
+    @Update("UPDATE todos SET is_deleted = 1, deleted_at = #{time}, change_seq = #{changeSeq}, "
+            + "content_seq = #{changeSeq} "
+            + "WHERE id = #{id} AND user_id = #{userId} AND is_deleted = 0 AND deleted = 0")
+    int moveToTrash(Mutation mutation);
+
+    /**
+     * 读取某个变更位置之后的所有行（包括已永久删除的行），按 (change_seq, id) 排序
+     *
+     * @param userId 用户ID
+     * @param changeSeq 起始变更序号（不含）
+     * @param lastId 同一变更序号内已读取的最大ID
+     * @param limit 最大行数
+     * @return 变化的行
+     */
+    @Select("SELECT id, user_id, category_id, title, description, priority, status, completed_at, due_date, "
+            + "reminder_time, sort_order, is_deleted, deleted_at, created_at, updated_at, change_seq, content_seq, "
+            + "deleted FROM todos WHERE user_id = #{userId} "
+            + "AND (change_seq > #{changeSeq} OR (change_seq = #{changeSeq} AND id > #{lastId})) "
+            + "ORDER BY change_seq, id LIMIT #{limit}")
+    List<Todo> selectChangedSince(@Param("userId") Long userId,
+                                  @Param("changeSeq") Long changeSeq,
+                                  @Param("lastId") Long lastId,
+                                  @Param("limit") int limit);
+
+    /**
+     * 单行条件更新的参数
+     */
+    @Data
+    class Mutation {
+
+        private Long id;
+
+        private Long userId;
+
+        private Long changeSeq;
+
+        private LocalDateTime time;
+    }
+}
@@ -3,6 +3,12 @@ package com.uiineed.todo.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.uiineed.todo.entity.User;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
 
 /**
  * 用户数据访问层
@@ -12,4 +18,53 @@ import org.apache.ibatis.annotations.Mapper;
  */
 @Mapper
 public interface UserMapper extends BaseMapper<User> {
-}
\ No newline at end of file
+
+    /**
+     * 原子地累加登录次数并更新最后登录时间
+     *
+     * @param userId 用户ID
+     * @param delta 新增登录次数
+     * @param lastLoginTime 最后登录时间
+     * @return 影响行数
+     */
+    @Update("UPDATE users SET login_count = IFNULL(login_count, 0) + #{delta}, "
+            + "last_login_time = GREATEST(IFNULL(last_login_time, #{lastLoginTime}), #{lastLoginTime}) "
+            + "WHERE id = #{userId} AND deleted = 0")
+    int incrementLoginStats(@Param("userId") Long userId,
+                            @Param("delta") int delta,
+                            @Param("lastLoginTime") LocalDateTime lastLoginTime);
+
+    /**
+     * 递增用户的待办事项变更序号，新值写入 user.changeSeq
+     *
+     * <p>LAST_INSERT_ID(expr) 的值随UPDATE的执行结果返回，驱动把它作为生成键交给MyBatis，不需要再查询一次。
+     * 更新会锁住用户行直到事务结束，同一用户的修改按提交顺序取得递增的序号。</p>
+     *
+     * @param user 用户（须包含ID）
+     * @return 影响行数
+     */
+    @Update("UPDATE users SET change_seq = LAST_INSERT_ID(change_seq + 1) WHERE id = #{id}")
+    @Options(useGeneratedKeys = true, keyProperty = "changeSeq")
+    int incrementChangeSeq(User user);
+
+    /**
+     * 锁定用户行直到事务结束（与 {@link #incrementChangeSeq(User)} 互斥），返回当前变更序号
+     *
+     * <p>事务中第一条语句为锁定读时，之后的一致性读在取得锁之后才建立快照，
+     * 能看到此前提交的所有修改。</p>
+     *
+     * @param userId 用户ID
+     * @return 变更序号，用户不存在时返回null
+     */
+    @Select("SELECT change_seq FROM users WHERE id = #{userId} FOR UPDATE")
+    Long lockChangeSeq(@Param("userId") Long userId);
+
+    /**
+     * 读取用户当前的待办事项变更序号
+     *
+     * @param userId 用户ID
+     * @return 变更序号
+     */
+    @Select("SELECT change_seq FROM users WHERE id = #{userId}")
+    Long selectChangeSeq(@Param("userId") Long userId);
+}
@@ -1,6 +1,8 @@
 package com.uiineed.todo.security;
 
 import com.uiineed.todo.config.JwtConfig;
+import com.uiineed.todo.service.TokenRevocationService;
+import com.uiineed.todo.service.UserService;
 import com.uiineed.todo.util.JwtUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,7 +18,7 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.Collections;
 
 /**
  * JWT认证过滤器
@@ -34,6 +36,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtConfig jwtConfig;
 
+    @Autowired
+    private JwtTokenVerifier jwtTokenVerifier;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private UserService userService;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                 HttpServletResponse response,
@@ -42,19 +53,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && jwtUtil.validateToken(jwt)) {
-                Long userId = jwtUtil.getUserIdFromToken(jwt);
-                String openId = jwtUtil.getOpenIdFromToken(jwt);
+            if (StringUtils.hasText(jwt)) {
+                // 一次解析得到全部主体信息，重复请求直接命中验证缓存
+                JwtPrincipal principal = jwtTokenVerifier.verify(jwt);
 
-                // 创建认证对象
-                UsernamePasswordAuthenticationToken authentication =
-                    new UsernamePasswordAuthenticationToken(userId, null, new ArrayList<>());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                // 已删除或被禁用的用户不再认证（用户信息走两级缓存，禁用后在缓存失效广播或本地TTL内生效）
+                if (principal != null && !tokenRevocationService.isRevoked(principal)
+                        && userService.isUserValid(principal.getUserId())) {
+                    // 创建认证对象
+                    UsernamePasswordAuthenticationToken authentication =
+                        new UsernamePasswordAuthenticationToken(principal, null, Collections.emptyList());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                // 设置到Security上下文
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                    // 设置到Security上下文
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
 
-                log.debug("Set authentication for user: {}, openId: {}", userId, openId);
+                    log.debug("Set authentication for user: {}, openId: {}", principal.getUserId(), principal.getOpenId());
+                }
             }
         } catch (Exception ex) {
             log.error("Could not set user authentication in security context", ex);
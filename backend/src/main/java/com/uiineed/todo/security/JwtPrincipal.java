@@ -0,0 +1,71 @@
+package com.uiineed.todo.security;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+import java.util.Date;
+
+/**
+ * 已验证的JWT主体信息
+ *
+ * <p>Token只解析一次，后续从该对象读取用户ID、OpenID和过期时间。
+ * {@link #getName()} 返回用户ID字符串，与 {@code Authentication#getName()} 的既有用法保持兼容。</p>
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class JwtPrincipal implements AuthenticatedPrincipal {
+
+    /**
+     * Token唯一标识（jti），用于吊销
+     */
+    private final String tokenId;
+
+    /**
+     * 用户ID
+     */
+    private final Long userId;
+
+    /**
+     * 微信OpenID
+     */
+    private final String openId;
+
+    /**
+     * 过期时间
+     */
+    private final Date expiration;
+
+    /**
+     * Token类型（刷新Token为refresh，访问Token为null）
+     */
+    private final String type;
+
+    @Override
+    public String getName() {
+        return String.valueOf(userId);
+    }
+
+    /**
+     * 是否为刷新Token
+     *
+     * @return 是否为刷新Token
+     */
+    public boolean isRefreshToken() {
+        return "refresh".equals(type);
+    }
+
+    /**
+     * 距过期的剩余毫秒数
+     *
+     * @return 剩余毫秒数，已过期时为0
+     */
+    public long getRemainingMillis() {
+        return Math.max(0L, expiration.getTime() - System.currentTimeMillis());
+    }
+}
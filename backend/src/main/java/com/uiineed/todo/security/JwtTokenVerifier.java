@@ -0,0 +1,180 @@
+package com.uiineed.todo.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.uiineed.todo.config.JwtConfig;
+import com.uiineed.todo.util.JwtUtil;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * JWT验证器
+ *
+ * <p>每个Token只做一次解析和签名校验，验证结果按Token摘要缓存。
+ * 缓存容量有上限，条目存活时间不超过Token自身的剩余有效期，
+ * 同一客户端的重复请求可以直接跳过HMAC计算。</p>
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class JwtTokenVerifier {
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private JwtConfig jwtConfig;
+
+    /**
+     * 已验证Token缓存：Token摘要 -> 主体信息
+     */
+    private Cache<String, JwtPrincipal> verifiedTokens;
+
+    /**
+     * 缓存命中次数
+     */
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * 缓存未命中次数
+     */
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * 每个线程复用一个摘要实例
+     */
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256不可用", e);
+        }
+    });
+
+    @PostConstruct
+    public void init() {
+        long maxTtlNanos = TimeUnit.MILLISECONDS.toNanos(jwtConfig.getVerifiedCacheTtl());
+
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(jwtConfig.getVerifiedCacheMaxSize())
+                .expireAfter(new Expiry<String, JwtPrincipal>() {
+                    @Override
+                    public long expireAfterCreate(String key, JwtPrincipal principal, long currentTime) {
+                        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(principal.getRemainingMillis());
+                        return Math.min(remainingNanos, maxTtlNanos);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, JwtPrincipal principal,
+                                                  long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, JwtPrincipal principal,
+                                                long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+
+        log.info("JWT验证缓存初始化完成，最大条目数：{}，最长存活时间：{} 毫秒",
+                jwtConfig.getVerifiedCacheMaxSize(), jwtConfig.getVerifiedCacheTtl());
+    }
+
+    /**
+     * 验证Token并返回主体信息
+     *
+     * @param token JWT Token
+     * @return 主体信息，Token无效或已过期时返回null
+     */
+    public JwtPrincipal verify(String token) {
+        String digest = digest(token);
+
+        JwtPrincipal cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+
+        JwtPrincipal principal;
+        try {
+            principal = jwtUtil.parseToken(token);
+        } catch (ExpiredJwtException ex) {
+            log.debug("Expired JWT token");
+            return null;
+        } catch (JwtException | IllegalArgumentException ex) {
+            log.warn("Invalid JWT token: {}", ex.getMessage());
+            return null;
+        }
+
+        if (principal.getRemainingMillis() > 0) {
+            verifiedTokens.put(digest, principal);
+        }
+        return principal;
+    }
+
+    /**
+     * 使某个Token的缓存结果失效
+     *
+     * @param token JWT Token
+     */
+    public void invalidate(String token) {
+        verifiedTokens.invalidate(digest(token));
+    }
+
+    /**
+     * 缓存命中次数
+     *
+     * @return 命中次数
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * 缓存未命中次数
+     *
+     * @return 未命中次数
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * 当前缓存条目数（估算值）
+     *
+     * @return 条目数
+     */
+    public long getCachedSize() {
+        return verifiedTokens.estimatedSize();
+    }
+
+    /**
+     * 计算Token摘要作为缓存键，避免在内存中直接持有原始Token
+     *
+     * @param token JWT Token
+     * @return Base64编码的SHA-256摘要
+     */
+    private String digest(String token) {
+        MessageDigest md = SHA256.get();
+        md.reset();
+        byte[] hash = md.digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().withoutPadding().encodeToString(hash);
+    }
+}
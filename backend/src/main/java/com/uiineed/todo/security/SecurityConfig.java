@@ -65,13 +65,14 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
             // 配置请求授权规则
             .authorizeRequests()
-                // 允许匿名访问的接口
-                .antMatchers("/api/auth/**").permitAll()
-                .antMatchers("/api/health/**").permitAll()
-                .antMatchers("/api/docs/**").permitAll()
+                // 允许匿名访问的接口（路径不含context-path /api）
+                .antMatchers("/auth/**").permitAll()
+                .antMatchers("/health/**").permitAll()
+                .antMatchers("/docs/**").permitAll()
                 .antMatchers("/swagger-ui/**").permitAll()
                 .antMatchers("/v3/api-docs/**").permitAll()
-                .antMatchers("/actuator/**").permitAll()
+                // 只开放健康检查和应用信息，metrics 等端点需要认证
+                .antMatchers("/actuator/health", "/actuator/health/**", "/actuator/info").permitAll()
 
                 // 开发环境允许所有OPTIONS请求
                 .antMatchers("OPTIONS", "/**").permitAll()
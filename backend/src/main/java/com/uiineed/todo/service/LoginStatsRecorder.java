@@ -0,0 +1,150 @@
+package com.uiineed.todo.service;
+
+import com.uiineed.todo.entity.User;
+import com.uiineed.todo.mapper.UserMapper;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * 登录统计记录器
+ *
+ * <p>登录时只在内存中记一笔，由定时任务批量写回数据库。同一窗口内同一用户的
+ * 多次登录合并为一次写入，写入使用 {@code login_count = login_count + delta}
+ * 原子累加，不再先查后改，也不会在并发登录时丢失计数。每个用户写入成功后通知
+ * {@link #onFlushed(Consumer)} 注册的监听器，由其失效缓存中的用户信息。</p>
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+public class LoginStatsRecorder {
+
+    @Autowired
+    private UserMapper userMapper;
+
+    /**
+     * 待写入的登录统计：用户ID -> 统计
+     */
+    private final Map<Long, LoginStats> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 写入成功后的监听器，参数为只含ID和OpenID的用户
+     */
+    private volatile Consumer<User> flushListener = user -> { };
+
+    /**
+     * 窗口内累计的登录统计
+     */
+    @Getter
+    @AllArgsConstructor
+    private static class LoginStats {
+
+        /**
+         * 登录次数
+         */
+        private final int count;
+
+        /**
+         * 最后登录时间
+         */
+        private final LocalDateTime lastLoginTime;
+
+        /**
+         * 微信OpenID（用于失效按OpenID缓存的用户信息）
+         */
+        private final String openId;
+
+        LoginStats merge(LoginStats other) {
+            LocalDateTime latest = other.lastLoginTime.isAfter(lastLoginTime) ? other.lastLoginTime : lastLoginTime;
+            return new LoginStats(count + other.count, latest, openId != null ? openId : other.openId);
+        }
+    }
+
+    /**
+     * 记录一次登录
+     *
+     * @param userId 用户ID
+     * @param openId 微信OpenID
+     */
+    public void record(Long userId, String openId) {
+        pending.merge(userId, new LoginStats(1, LocalDateTime.now(), openId), LoginStats::merge);
+    }
+
+    /**
+     * 注册写入成功后的监听器（替换之前注册的监听器）
+     *
+     * @param listener 监听器，参数为只含ID和OpenID的用户
+     */
+    public void onFlushed(Consumer<User> listener) {
+        this.flushListener = listener;
+    }
+
+    /**
+     * 当前待写入的用户数
+     *
+     * @return 用户数
+     */
+    public int pendingSize() {
+        return pending.size();
+    }
+
+    /**
+     * 批量写回登录统计
+     */
+    @Scheduled(fixedDelayString = "${login-stats.flush-interval:5000}",
+            initialDelayString = "${login-stats.flush-interval:5000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<Long> userIds = new ArrayList<>(pending.keySet());
+        int flushed = 0;
+        for (Long userId : userIds) {
+            // remove保证取出后新的登录记到下一个窗口
+            LoginStats stats = pending.remove(userId);
+            if (stats == null) {
+                continue;
+            }
+            try {
+                userMapper.incrementLoginStats(userId, stats.getCount(), stats.getLastLoginTime());
+                flushed++;
+            } catch (Exception e) {
+                log.error("写入登录统计失败，下个窗口重试: userId={}", userId, e);
+                pending.merge(userId, stats, LoginStats::merge);
+                continue;
+            }
+            notifyFlushed(userId, stats.getOpenId());
+        }
+        log.debug("写入登录统计完成，用户数：{}", flushed);
+    }
+
+    private void notifyFlushed(Long userId, String openId) {
+        User user = new User();
+        user.setId(userId);
+        user.setWechatOpenId(openId);
+        try {
+            flushListener.accept(user);
+        } catch (Exception e) {
+            log.warn("登录统计写入后通知失败: userId={}", userId, e);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        flush();
+    }
+}
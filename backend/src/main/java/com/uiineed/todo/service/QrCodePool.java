@@ -0,0 +1,254 @@
+package com.uiineed.todo.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.zxing.common.BitMatrix;
+import com.uiineed.todo.config.QrCodePoolConfig;
+import com.uiineed.todo.config.WeChatConfig;
+import com.uiineed.todo.util.QrCodeRenderer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 预生成登录二维码池
+ *
+ * <p>二维码编码是匿名接口中最耗CPU的操作，这里由后台线程预先生成
+ * state与二维码模块矩阵，请求线程只需出队。池中数量低于低水位时触发后台补充，
+ * 补充到高水位为止；池被取空时退化为在请求线程中同步生成。</p>
+ *
+ * <p>已发放的二维码在本地缓存到过期为止，图片接口直接按矩阵渲染SVG或PNG。</p>
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+public class QrCodePool {
+
+    @Autowired
+    private WeChatService weChatService;
+
+    @Autowired
+    private QrCodePoolConfig qrCodePoolConfig;
+
+    @Autowired
+    private WeChatConfig weChatConfig;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 预生成的二维码
+     */
+    private BlockingQueue<PreparedQrCode> pool;
+
+    /**
+     * 已发放的二维码：state -> 模块矩阵
+     */
+    private Cache<String, BitMatrix> issued;
+
+    /**
+     * 后台生成线程池
+     */
+    private ExecutorService workers;
+
+    /**
+     * 是否正在补充
+     */
+    private final AtomicBoolean refilling = new AtomicBoolean(false);
+
+    /**
+     * 正在运行的补充任务数
+     */
+    private final AtomicInteger activeRefills = new AtomicInteger();
+
+    /**
+     * 单个二维码生成耗时
+     */
+    private Timer refillTimer;
+
+    /**
+     * 池为空时在请求线程中同步生成的次数
+     */
+    private Counter missCounter;
+
+    /**
+     * 预生成的二维码
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class PreparedQrCode {
+
+        /**
+         * 状态参数
+         */
+        private final String state;
+
+        /**
+         * 微信授权URL
+         */
+        private final String authUrl;
+
+        /**
+         * 二维码模块矩阵
+         */
+        private final BitMatrix modules;
+    }
+
+    @PostConstruct
+    public void init() {
+        int workerCount = qrCodePoolConfig.resolveWorkers();
+        this.pool = new LinkedBlockingQueue<>(qrCodePoolConfig.getHighWatermark());
+        this.issued = Caffeine.newBuilder()
+                .maximumSize(qrCodePoolConfig.getIssuedCacheMaxSize())
+                .expireAfterWrite(weChatConfig.getQrExpireSeconds(), TimeUnit.SECONDS)
+                .build();
+        this.workers = Executors.newFixedThreadPool(workerCount, new ThreadFactory() {
+            private final AtomicInteger index = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "qrcode-pool-" + index.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        Gauge.builder("qrcode.pool.depth", pool, BlockingQueue::size)
+                .description("预生成二维码池当前数量")
+                .register(meterRegistry);
+        this.refillTimer = Timer.builder("qrcode.pool.refill")
+                .description("后台生成单个二维码耗时")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("qrcode.pool.miss")
+                .description("池为空时同步生成二维码的次数")
+                .register(meterRegistry);
+
+        log.info("二维码池初始化，低水位：{}，高水位：{}，生成线程数：{}",
+                qrCodePoolConfig.getLowWatermark(), qrCodePoolConfig.getHighWatermark(), workerCount);
+        triggerRefill(true);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * 取出一个二维码
+     *
+     * @return 二维码
+     */
+    public PreparedQrCode take() {
+        PreparedQrCode qrCode = pool.poll();
+        triggerRefill(false);
+
+        if (qrCode == null) {
+            missCounter.increment();
+            qrCode = generate();
+        }
+        issued.put(qrCode.getState(), qrCode.getModules());
+        return qrCode;
+    }
+
+    /**
+     * 获取本节点发放过的二维码矩阵
+     *
+     * @param state 状态参数
+     * @return 模块矩阵，未发放或已过期时返回null
+     */
+    public BitMatrix getIssued(String state) {
+        return issued.getIfPresent(state);
+    }
+
+    /**
+     * 为已登记的state重新编码二维码（其他节点发放或本地缓存已淘汰时使用）
+     *
+     * @param state 状态参数
+     * @return 模块矩阵
+     */
+    public BitMatrix encode(String state) {
+        return issued.get(state, key -> QrCodeRenderer.encode(weChatService.getAuthUrl(key)));
+    }
+
+    /**
+     * 当前池中数量
+     *
+     * @return 数量
+     */
+    public int depth() {
+        return pool.size();
+    }
+
+    /**
+     * 低于低水位时启动后台补充
+     *
+     * @param force 是否忽略低水位直接补充
+     */
+    private void triggerRefill(boolean force) {
+        if (!force && pool.size() >= qrCodePoolConfig.getLowWatermark()) {
+            return;
+        }
+        if (!refilling.compareAndSet(false, true)) {
+            return;
+        }
+
+        int workerCount = qrCodePoolConfig.resolveWorkers();
+        activeRefills.set(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::refill);
+        }
+    }
+
+    /**
+     * 补充到高水位
+     */
+    private void refill() {
+        try {
+            while (pool.size() < qrCodePoolConfig.getHighWatermark() && !Thread.currentThread().isInterrupted()) {
+                long start = System.nanoTime();
+                PreparedQrCode qrCode = generate();
+                refillTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                if (!pool.offer(qrCode)) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.error("后台生成二维码失败", e);
+        } finally {
+            if (activeRefills.decrementAndGet() == 0) {
+                refilling.set(false);
+            }
+        }
+    }
+
+    /**
+     * 生成state与对应的二维码
+     *
+     * @return 二维码
+     */
+    private PreparedQrCode generate() {
+        String state = UUID.randomUUID().toString();
+        String authUrl = weChatService.getAuthUrl(state);
+        return new PreparedQrCode(state, authUrl, QrCodeRenderer.encode(authUrl));
+    }
+}
@@ -0,0 +1,329 @@
+package com.uiineed.todo.service;
+
+import com.alibaba.fastjson2.JSON;
+import com.uiineed.todo.common.ApiResult;
+import com.uiineed.todo.common.ResultCode;
+import com.uiineed.todo.config.WeChatConfig;
+import com.uiineed.todo.vo.LoginResponse;
+import com.uiineed.todo.vo.QrLoginStatusResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 扫码登录状态服务
+ *
+ * <p>二维码的state存放在Redis中并设置TTL，回调时通过Lua脚本原子地推进状态，
+ * 保证同一个state只能被使用一次。等待登录的页面通过长轮询挂起请求，
+ * 状态变化经Redis发布/订阅通知到持有等待请求的节点，期间不占用Tomcat工作线程。</p>
+ *
+ * <p>state会出现在二维码和回调地址中，不能作为查询凭据。生成二维码时另行签发轮询令牌，
+ * 只返回给生成二维码的页面，Redis中只保存其SHA-256摘要；查询状态必须携带该令牌。
+ * 登录结果由Lua脚本原子地读取并删除，只会交给一个等待请求。</p>
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+public class QrLoginStateService implements MessageListener {
+
+    public static final String PENDING = "PENDING";
+    public static final String SCANNED = "SCANNED";
+    public static final String CONFIRMED = "CONFIRMED";
+    public static final String FAILED = "FAILED";
+    public static final String EXPIRED = "EXPIRED";
+
+    private static final String STATE_KEY_PREFIX = "wechat:qr:state:";
+    private static final String RESULT_KEY_PREFIX = "wechat:qr:result:";
+    private static final String POLL_KEY_PREFIX = "wechat:qr:poll:";
+    private static final String CHANNEL = "wechat:qr:status";
+
+    /**
+     * 比较并设置状态，保留原有TTL
+     */
+    private static final RedisScript<Long> COMPARE_AND_SET = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then "
+                    + "redis.call('SET', KEYS[1], ARGV[2], 'KEEPTTL') "
+                    + "return 1 "
+                    + "end "
+                    + "return 0",
+            Long.class);
+
+    /**
+     * 已扫码时保存登录结果并标记登录成功（结果的TTL与state相同），state已失败或过期时不做任何修改
+     */
+    private static final RedisScript<Long> CONFIRM = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) ~= ARGV[1] then return 0 end "
+                    + "local ttl = redis.call('PTTL', KEYS[1]) "
+                    + "if ttl <= 0 then return 0 end "
+                    + "redis.call('SET', KEYS[2], ARGV[3], 'PX', ttl) "
+                    + "redis.call('SET', KEYS[1], ARGV[2], 'KEEPTTL') "
+                    + "return 1",
+            Long.class);
+
+    /**
+     * 领取登录结果：读取并删除结果和state，之后的查询返回已过期
+     */
+    private static final RedisScript<String> CLAIM = new DefaultRedisScript<>(
+            "local result = redis.call('GET', KEYS[1]) "
+                    + "if result then redis.call('DEL', KEYS[1], KEYS[2]) end "
+                    + "return result",
+            String.class);
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /**
+     * 长轮询最长等待时间（毫秒）
+     */
+    private static final long MAX_WAIT_MILLIS = 30000L;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Autowired
+    private WeChatConfig weChatConfig;
+
+    /**
+     * 本节点上挂起的等待请求：state -> 等待者
+     */
+    private final Map<String, Set<DeferredResult<ApiResult<QrLoginStatusResponse>>>> waiters = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    /**
+     * 登记新生成的二维码state，并签发查询状态用的轮询令牌
+     *
+     * @param state 状态参数
+     * @return 轮询令牌（只返回给生成二维码的页面，不出现在二维码中）
+     */
+    public String register(String state) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String pollToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        stringRedisTemplate.opsForValue().set(POLL_KEY_PREFIX + state, digest(pollToken),
+                weChatConfig.getQrExpireSeconds(), TimeUnit.SECONDS);
+        stringRedisTemplate.opsForValue().set(STATE_KEY_PREFIX + state, PENDING,
+                weChatConfig.getQrExpireSeconds(), TimeUnit.SECONDS);
+        return pollToken;
+    }
+
+    /**
+     * state是否仍然有效（已登记且未过期）
+     *
+     * @param state 状态参数
+     * @return 是否有效
+     */
+    public boolean exists(String state) {
+        return Boolean.TRUE.equals(stringRedisTemplate.hasKey(STATE_KEY_PREFIX + state));
+    }
+
+    /**
+     * 标记二维码已被扫描（原子操作，每个state只能成功一次）
+     *
+     * @param state 状态参数
+     * @return 是否标记成功；state不存在、已过期或已被使用时返回false
+     */
+    public boolean markScanned(String state) {
+        if (compareAndSet(state, PENDING, SCANNED)) {
+            publish(state);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 标记登录成功，并保存登录结果供等待页面领取
+     *
+     * <p>只有state仍为已扫码时才生效；回调超时后state已被 {@link #fail} 标记为失败，
+     * 迟到的登录结果不会再被保存。</p>
+     *
+     * @param state 状态参数
+     * @param loginResponse 登录结果
+     * @return 是否标记成功
+     */
+    public boolean confirm(String state, LoginResponse loginResponse) {
+        Long updated = stringRedisTemplate.execute(CONFIRM,
+                Arrays.asList(STATE_KEY_PREFIX + state, RESULT_KEY_PREFIX + state),
+                SCANNED, CONFIRMED, JSON.toJSONString(loginResponse));
+        if (updated == null || updated != 1L) {
+            return false;
+        }
+        publish(state);
+        return true;
+    }
+
+    /**
+     * 标记登录失败
+     *
+     * @param state 状态参数
+     */
+    public void fail(String state) {
+        if (compareAndSet(state, SCANNED, FAILED)) {
+            publish(state);
+        }
+    }
+
+    /**
+     * 等待状态变化（长轮询）
+     *
+     * @param state 状态参数
+     * @param pollToken 生成二维码时签发的轮询令牌
+     * @param knownStatus 客户端已知的状态，状态与之不同时立即返回
+     * @param timeoutMillis 最长等待时间（毫秒）
+     * @return 挂起的异步结果；轮询令牌不匹配时立即返回无权限
+     */
+    public DeferredResult<ApiResult<QrLoginStatusResponse>> await(String state, String pollToken,
+                                                                  String knownStatus, long timeoutMillis) {
+        long timeout = Math.max(1000L, Math.min(timeoutMillis, MAX_WAIT_MILLIS));
+        DeferredResult<ApiResult<QrLoginStatusResponse>> deferred = new DeferredResult<>(timeout);
+
+        if (!verifyPollToken(state, pollToken)) {
+            deferred.setResult(ApiResult.failed(ResultCode.FORBIDDEN));
+            return deferred;
+        }
+
+        // 先登记再检查，避免检查之后、登记之前的状态变化被遗漏
+        Set<DeferredResult<ApiResult<QrLoginStatusResponse>>> stateWaiters =
+                waiters.computeIfAbsent(state, key -> ConcurrentHashMap.newKeySet());
+        stateWaiters.add(deferred);
+        deferred.onTimeout(() -> deliver(state, currentStatus(state), Collections.singleton(deferred)));
+        deferred.onCompletion(() -> removeWaiter(state, deferred));
+
+        String current = currentStatus(state);
+        if (!current.equals(knownStatus)) {
+            deliver(state, current, Collections.singleton(deferred));
+        }
+        return deferred;
+    }
+
+    /**
+     * 接收状态变化通知，唤醒本节点上的等待请求
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String state = new String(message.getBody(), StandardCharsets.UTF_8);
+        Set<DeferredResult<ApiResult<QrLoginStatusResponse>>> stateWaiters = waiters.get(state);
+        if (stateWaiters == null || stateWaiters.isEmpty()) {
+            return;
+        }
+
+        deliver(state, currentStatus(state), stateWaiters);
+    }
+
+    /**
+     * 把状态交给等待请求；登录成功时原子地领取登录结果，只交给一个等待请求
+     *
+     * <p>结果已被其他请求领取时，state也已删除，按已过期返回。领取后等待请求恰好超时或已完成
+     * （{@link DeferredResult#setResult} 返回false）时放回登录结果，由下一次轮询领取。</p>
+     */
+    private void deliver(String state, String status,
+                         Iterable<DeferredResult<ApiResult<QrLoginStatusResponse>>> targets) {
+        for (DeferredResult<ApiResult<QrLoginStatusResponse>> deferred : targets) {
+            if (deferred.isSetOrExpired()) {
+                continue;
+            }
+
+            QrLoginStatusResponse response = new QrLoginStatusResponse();
+            response.setState(state);
+            response.setStatus(status);
+            if (CONFIRMED.equals(status)) {
+                String result = stringRedisTemplate.execute(CLAIM,
+                        Arrays.asList(RESULT_KEY_PREFIX + state, STATE_KEY_PREFIX + state));
+                if (result == null) {
+                    response.setStatus(EXPIRED);
+                } else {
+                    response.setLogin(JSON.parseObject(result, LoginResponse.class));
+                    if (!deferred.setResult(ApiResult.success(response))) {
+                        restore(state, result);
+                    }
+                    continue;
+                }
+            }
+            deferred.setResult(ApiResult.success(response));
+        }
+    }
+
+    /**
+     * 放回未送达的登录结果
+     */
+    private void restore(String state, String result) {
+        long expireSeconds = weChatConfig.getQrExpireSeconds();
+        stringRedisTemplate.opsForValue().set(RESULT_KEY_PREFIX + state, result, expireSeconds, TimeUnit.SECONDS);
+        stringRedisTemplate.opsForValue().set(STATE_KEY_PREFIX + state, CONFIRMED, expireSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 当前状态，state不存在时为已过期
+     */
+    private String currentStatus(String state) {
+        String status = stringRedisTemplate.opsForValue().get(STATE_KEY_PREFIX + state);
+        return status == null ? EXPIRED : status;
+    }
+
+    /**
+     * 校验轮询令牌（比较摘要，耗时与内容无关）
+     */
+    private boolean verifyPollToken(String state, String pollToken) {
+        if (pollToken == null || pollToken.isEmpty()) {
+            return false;
+        }
+        String expected = stringRedisTemplate.opsForValue().get(POLL_KEY_PREFIX + state);
+        return expected != null && MessageDigest.isEqual(
+                expected.getBytes(StandardCharsets.UTF_8), digest(pollToken).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String digest(String pollToken) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(pollToken.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private boolean compareAndSet(String state, String expected, String next) {
+        Long updated = stringRedisTemplate.execute(COMPARE_AND_SET,
+                Collections.singletonList(STATE_KEY_PREFIX + state), expected, next);
+        return updated != null && updated == 1L;
+    }
+
+    private void publish(String state) {
+        stringRedisTemplate.convertAndSend(CHANNEL, state);
+    }
+
+    private void removeWaiter(String state, DeferredResult<ApiResult<QrLoginStatusResponse>> deferred) {
+        waiters.computeIfPresent(state, (key, set) -> {
+            set.remove(deferred);
+            return set.isEmpty() ? null : set;
+        });
+    }
+}
@@ -0,0 +1,448 @@
+package com.uiineed.todo.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.uiineed.todo.entity.Todo;
+import com.uiineed.todo.entity.User;
+import com.uiineed.todo.mapper.TodoMapper;
+import com.uiineed.todo.mapper.UserMapper;
+import com.uiineed.todo.util.TransactionUtils;
+import com.uiineed.todo.vo.TodoStatsResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 待办事项计数服务
+ *
+ * <p>每个用户的计数（总数、各状态数量、回收站数量）保存在Redis哈希中，未完成且设置了
+ * 截止时间的待办事项按截止时间保存在有序集合中，逾期数量即按当前时间做一次ZCOUNT。
+ * 修改待办事项时根据修改前后的行状态计算增量，在事务提交后原子地应用；
+ * 计数尚未初始化时不应用增量，首次读取时按用户重新统计。
+ * 定时任务分批重新统计已有计数的用户，修复并发修改等原因造成的偏差。</p>
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+public class TodoCounterService {
+
+    private static final String COUNTER_KEY_PREFIX = "todo:counters:";
+    private static final String DUE_KEY_PREFIX = "todo:due:";
+    private static final String RECONCILE_LOCK_KEY = "todo:counters:reconcile:lock";
+
+    private static final String TOTAL = "total";
+    private static final String TRASHED = "trashed";
+    private static final String STATUS_PREFIX = "status:";
+
+    /**
+     * 应用增量（计数未初始化时跳过）
+     *
+     * <p>KEYS: 计数哈希、截止时间有序集合；ARGV: 过期毫秒数、增量字段数、字段/增量...、
+     * 移除成员数、成员...、新增成员数、分数/成员...</p>
+     */
+    private static final RedisScript<Long> APPLY_DELTA = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end "
+                    + "local i = 2 "
+                    + "local n = tonumber(ARGV[i]) i = i + 1 "
+                    + "for j = 1, n do redis.call('HINCRBY', KEYS[1], ARGV[i], ARGV[i + 1]) i = i + 2 end "
+                    + "n = tonumber(ARGV[i]) i = i + 1 "
+                    + "for j = 1, n do redis.call('ZREM', KEYS[2], ARGV[i]) i = i + 1 end "
+                    + "n = tonumber(ARGV[i]) i = i + 1 "
+                    + "for j = 1, n do redis.call('ZADD', KEYS[2], ARGV[i], ARGV[i + 1]) i = i + 2 end "
+                    + "redis.call('PEXPIRE', KEYS[1], ARGV[1]) "
+                    + "redis.call('PEXPIRE', KEYS[2], ARGV[1]) "
+                    + "return 1",
+            Long.class);
+
+    /**
+     * 整体重建计数
+     *
+     * <p>KEYS: 计数哈希、截止时间有序集合；ARGV: 过期毫秒数、字段数、字段/值...、成员数、分数/成员...</p>
+     */
+    private static final RedisScript<Long> REBUILD = new DefaultRedisScript<>(
+            "redis.call('DEL', KEYS[1], KEYS[2]) "
+                    + "local i = 2 "
+                    + "local n = tonumber(ARGV[i]) i = i + 1 "
+                    + "for j = 1, n do redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) i = i + 2 end "
+                    + "n = tonumber(ARGV[i]) i = i + 1 "
+                    + "for j = 1, n do redis.call('ZADD', KEYS[2], ARGV[i], ARGV[i + 1]) i = i + 2 end "
+                    + "redis.call('PEXPIRE', KEYS[1], ARGV[1]) "
+                    + "if n > 0 then redis.call('PEXPIRE', KEYS[2], ARGV[1]) end "
+                    + "return 1",
+            Long.class);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private TodoMapper todoMapper;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    /**
+     * 计数有效期（毫秒），长期不活跃用户的计数自动过期
+     */
+    @Value("${todo-counters.ttl:2592000000}")
+    private Long ttl;
+
+    /**
+     * 校正任务每批处理的用户数
+     */
+    @Value("${todo-counters.reconcile-chunk-size:500}")
+    private Integer reconcileChunkSize;
+
+    /**
+     * 校正任务间隔（毫秒），同时是校正锁的持有时间
+     */
+    @Value("${todo-counters.reconcile-interval:600000}")
+    private Long reconcileInterval;
+
+    /**
+     * 计数快照
+     */
+    private static class Snapshot {
+
+        /**
+         * 计数字段
+         */
+        private final Map<String, Long> counters = new LinkedHashMap<>();
+
+        /**
+         * 未完成待办事项的截止时间：ID -> 毫秒时间戳
+         */
+        private final Map<String, Double> dueDates = new LinkedHashMap<>();
+    }
+
+    /**
+     * 记录单条待办事项的变化
+     *
+     * @param before 修改前的行（新建时为null）
+     * @param after 修改后的行（永久删除时为null）
+     */
+    public void onChanged(Todo before, Todo after) {
+        onChanged(before == null ? Collections.emptyList() : Collections.singletonList(before),
+                after == null ? Collections.emptyList() : Collections.singletonList(after));
+    }
+
+    /**
+     * 记录一批待办事项的变化（同一用户）
+     *
+     * @param before 修改前的行
+     * @param after 修改后的行
+     */
+    public void onChanged(List<Todo> before, List<Todo> after) {
+        Long userId = !after.isEmpty() ? after.get(0).getUserId() : !before.isEmpty() ? before.get(0).getUserId() : null;
+        if (userId == null) {
+            return;
+        }
+
+        Map<String, Long> deltas = new HashMap<>();
+        Set<String> removed = new LinkedHashSet<>();
+        Map<String, Double> added = new LinkedHashMap<>();
+        for (Todo todo : before) {
+            contribute(todo, -1, deltas);
+            removed.add(String.valueOf(todo.getId()));
+        }
+        for (Todo todo : after) {
+            contribute(todo, 1, deltas);
+            Double score = dueScore(todo);
+            if (score != null) {
+                removed.remove(String.valueOf(todo.getId()));
+                added.put(String.valueOf(todo.getId()), score);
+            }
+        }
+        deltas.values().removeIf(delta -> delta == 0);
+
+        TransactionUtils.afterCommit(() -> applyDelta(userId, deltas, removed, added));
+    }
+
+    /**
+     * 记录清空回收站
+     *
+     * @param userId 用户ID
+     * @param count 永久删除的数量
+     */
+    public void onTrashEmptied(Long userId, long count) {
+        if (count > 0) {
+            TransactionUtils.afterCommit(() -> applyDelta(userId, Collections.singletonMap(TRASHED, -count),
+                    Collections.emptySet(), Collections.emptyMap()));
+        }
+    }
+
+    /**
+     * 获取用户的待办事项统计
+     *
+     * @param userId 用户ID
+     * @return 统计信息
+     */
+    public TodoStatsResponse getStats(Long userId) {
+        Map<String, Long> counters;
+        long overdue;
+        try {
+            counters = loadCounters(userId);
+            Long count = stringRedisTemplate.opsForZSet().count(DUE_KEY_PREFIX + userId,
+                    Double.NEGATIVE_INFINITY, now());
+            overdue = count == null ? 0 : count;
+        } catch (Exception e) {
+            log.warn("读取待办计数失败，直接统计: userId={}", userId, e);
+            Snapshot snapshot = computeFromDatabase(userId);
+            counters = snapshot.counters;
+            double now = now();
+            overdue = snapshot.dueDates.values().stream().filter(score -> score <= now).count();
+        }
+
+        TodoStatsResponse response = new TodoStatsResponse();
+        response.setTotal(counters.getOrDefault(TOTAL, 0L));
+        response.setTodo(counters.getOrDefault(STATUS_PREFIX + Todo.Status.TODO, 0L));
+        response.setInProgress(counters.getOrDefault(STATUS_PREFIX + Todo.Status.IN_PROGRESS, 0L));
+        response.setCompleted(counters.getOrDefault(STATUS_PREFIX + Todo.Status.COMPLETED, 0L));
+        response.setCancelled(counters.getOrDefault(STATUS_PREFIX + Todo.Status.CANCELLED, 0L));
+        response.setTrashed(counters.getOrDefault(TRASHED, 0L));
+        response.setOverdue(overdue);
+        return response;
+    }
+
+    /**
+     * 未删除的待办事项数量（用于替代分页查询的COUNT）
+     *
+     * @param userId 用户ID
+     * @param status 状态过滤（可为null）
+     * @return 数量，计数不可用时返回null
+     */
+    public Long countActive(Long userId, Integer status) {
+        try {
+            Map<String, Long> counters = loadCounters(userId);
+            return counters.getOrDefault(status == null ? TOTAL : STATUS_PREFIX + status, 0L);
+        } catch (Exception e) {
+            log.warn("读取待办计数失败: userId={}", userId, e);
+            return null;
+        }
+    }
+
+    /**
+     * 回收站数量（用于替代回收站分页查询的COUNT）
+     *
+     * @param userId 用户ID
+     * @return 数量，计数不可用时返回null
+     */
+    public Long countTrashed(Long userId) {
+        try {
+            return loadCounters(userId).getOrDefault(TRASHED, 0L);
+        } catch (Exception e) {
+            log.warn("读取待办计数失败: userId={}", userId, e);
+            return null;
+        }
+    }
+
+    /**
+     * 按数据库重新统计并覆盖用户的计数
+     *
+     * @param userId 用户ID
+     */
+    public void rebuild(Long userId) {
+        Snapshot snapshot = computeFromDatabase(userId);
+
+        List<String> args = new ArrayList<>();
+        args.add(String.valueOf(ttl));
+        args.add(String.valueOf(snapshot.counters.size()));
+        snapshot.counters.forEach((field, value) -> {
+            args.add(field);
+            args.add(String.valueOf(value));
+        });
+        args.add(String.valueOf(snapshot.dueDates.size()));
+        snapshot.dueDates.forEach((member, score) -> {
+            args.add(String.valueOf(score.longValue()));
+            args.add(member);
+        });
+
+        stringRedisTemplate.execute(REBUILD, Arrays.asList(COUNTER_KEY_PREFIX + userId, DUE_KEY_PREFIX + userId),
+                args.toArray());
+    }
+
+    /**
+     * 定时分批校正已有计数的用户（集群内同一时间只有一个节点执行）
+     */
+    @Scheduled(fixedDelayString = "${todo-counters.reconcile-interval:600000}",
+            initialDelayString = "${todo-counters.reconcile-interval:600000}")
+    public void reconcile() {
+        String token = UUID.randomUUID().toString();
+        Boolean locked = stringRedisTemplate.opsForValue().setIfAbsent(RECONCILE_LOCK_KEY, token,
+                reconcileInterval, TimeUnit.MILLISECONDS);
+        if (!Boolean.TRUE.equals(locked)) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        long lastId = 0L;
+        int rebuilt = 0;
+        try {
+            while (true) {
+                QueryWrapper<User> queryWrapper = new QueryWrapper<>();
+                queryWrapper.select("id")
+                           .gt("id", lastId)
+                           .orderByAsc("id")
+                           .last("LIMIT " + reconcileChunkSize);
+                List<User> users = userMapper.selectList(queryWrapper);
+                if (users.isEmpty()) {
+                    break;
+                }
+
+                for (User user : users) {
+                    if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(COUNTER_KEY_PREFIX + user.getId()))) {
+                        rebuild(user.getId());
+                        rebuilt++;
+                    }
+                }
+
+                lastId = users.get(users.size() - 1).getId();
+                if (users.size() < reconcileChunkSize) {
+                    break;
+                }
+            }
+            log.info("待办计数校正完成，重建用户数：{}，耗时：{}ms", rebuilt, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("待办计数校正失败，已处理到用户ID：{}", lastId, e);
+        }
+    }
+
+    /**
+     * 读取计数，未初始化时先重建
+     */
+    private Map<String, Long> loadCounters(Long userId) {
+        Map<Object, Object> entries = stringRedisTemplate.opsForHash().entries(COUNTER_KEY_PREFIX + userId);
+        if (entries.isEmpty()) {
+            rebuild(userId);
+            entries = stringRedisTemplate.opsForHash().entries(COUNTER_KEY_PREFIX + userId);
+        }
+
+        Map<String, Long> counters = new HashMap<>();
+        entries.forEach((field, value) -> counters.put((String) field, Long.parseLong((String) value)));
+        return counters;
+    }
+
+    /**
+     * 从数据库统计
+     */
+    private Snapshot computeFromDatabase(Long userId) {
+        Snapshot snapshot = new Snapshot();
+        snapshot.counters.put(TOTAL, 0L);
+        snapshot.counters.put(TRASHED, 0L);
+        for (int status = Todo.Status.TODO; status <= Todo.Status.CANCELLED; status++) {
+            snapshot.counters.put(STATUS_PREFIX + status, 0L);
+        }
+
+        for (Map<String, Object> row : todoMapper.countGroupByStatus(userId)) {
+            long count = ((Number) row.get("count")).longValue();
+            Number isDeleted = (Number) row.get("isDeleted");
+            Number status = (Number) row.get("status");
+            if (isDeleted != null && isDeleted.intValue() == 1) {
+                snapshot.counters.merge(TRASHED, count, Long::sum);
+            } else {
+                snapshot.counters.merge(TOTAL, count, Long::sum);
+                if (status != null) {
+                    snapshot.counters.merge(STATUS_PREFIX + status.intValue(), count, Long::sum);
+                }
+            }
+        }
+
+        QueryWrapper<Todo> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("id", "due_date")
+                   .eq("user_id", userId)
+                   .eq("is_deleted", 0)
+                   .in("status", Todo.Status.TODO, Todo.Status.IN_PROGRESS)
+                   .isNotNull("due_date");
+        for (Todo todo : todoMapper.selectList(queryWrapper)) {
+            snapshot.dueDates.put(String.valueOf(todo.getId()), toScore(todo.getDueDate()));
+        }
+        return snapshot;
+    }
+
+    /**
+     * 一行数据对计数的贡献
+     */
+    private void contribute(Todo todo, int sign, Map<String, Long> deltas) {
+        if (Integer.valueOf(1).equals(todo.getIsDeleted())) {
+            deltas.merge(TRASHED, (long) sign, Long::sum);
+            return;
+        }
+        deltas.merge(TOTAL, (long) sign, Long::sum);
+        if (todo.getStatus() != null) {
+            deltas.merge(STATUS_PREFIX + todo.getStatus(), (long) sign, Long::sum);
+        }
+    }
+
+    /**
+     * 未完成、未删除且设置了截止时间的行返回截止时间分数，否则返回null
+     */
+    private Double dueScore(Todo todo) {
+        boolean open = todo.getStatus() != null
+                && (todo.getStatus() == Todo.Status.TODO || todo.getStatus() == Todo.Status.IN_PROGRESS);
+        if (!open || todo.getDueDate() == null || Integer.valueOf(1).equals(todo.getIsDeleted())) {
+            return null;
+        }
+        return toScore(todo.getDueDate());
+    }
+
+    private void applyDelta(Long userId, Map<String, Long> deltas, Set<String> removed, Map<String, Double> added) {
+        if (deltas.isEmpty() && removed.isEmpty() && added.isEmpty()) {
+            return;
+        }
+
+        List<String> args = new ArrayList<>();
+        args.add(String.valueOf(ttl));
+        args.add(String.valueOf(deltas.size()));
+        deltas.forEach((field, delta) -> {
+            args.add(field);
+            args.add(String.valueOf(delta));
+        });
+        args.add(String.valueOf(removed.size()));
+        args.addAll(removed);
+        args.add(String.valueOf(added.size()));
+        added.forEach((member, score) -> {
+            args.add(String.valueOf(score.longValue()));
+            args.add(member);
+        });
+
+        try {
+            stringRedisTemplate.execute(APPLY_DELTA, Arrays.asList(COUNTER_KEY_PREFIX + userId, DUE_KEY_PREFIX + userId),
+                    args.toArray());
+        } catch (Exception e) {
+            // 增量丢失时删除计数，下次读取重新统计
+            log.error("更新待办计数失败: userId={}", userId, e);
+            try {
+                stringRedisTemplate.delete(Arrays.asList(COUNTER_KEY_PREFIX + userId, DUE_KEY_PREFIX + userId));
+            } catch (Exception ignored) {
+                // Redis不可用时由校正任务和过期时间兜底
+            }
+        }
+    }
+
+    private static double toScore(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static double now() {
+        return System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,273 @@
+package com.uiineed.todo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uiineed.todo.entity.Todo;
+import com.uiineed.todo.mapper.TodoMapper;
+import com.uiineed.todo.mapper.UserMapper;
+import com.uiineed.todo.util.TransactionUtils;
+import com.uiineed.todo.vo.TodoChangeEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 待办事项变更实时推送服务（Server-Sent Events）
+ *
+ * <p>TodoService 的每个写操作在事务提交后把变更事件发布到 Redis 频道，
+ * 各节点收到后推送给本节点上该用户的连接。连接由 Servlet 异步请求承载，
+ * 空闲连接不占用线程；定时发送心跳注释行，保持代理和客户端的连接活跃。</p>
+ *
+ * <p>事件ID即变更序号。客户端重连时携带 Last-Event-ID，服务端从数据库补发之后的变更；
+ * 需要补发的变更过多时发送 reset 事件，由客户端改用增量同步接口。</p>
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+public class TodoEventService implements MessageListener {
+
+    private static final String CHANNEL = "todo:events";
+
+    /**
+     * 连接建立后的第一个事件，ID为当前变更序号
+     */
+    private static final String READY = "ready";
+
+    /**
+     * 无法补发断线期间的变更，客户端应执行增量同步
+     */
+    private static final String RESET = "reset";
+
+    @Autowired
+    private TodoMapper todoMapper;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 连接超时时间（毫秒），超时后客户端自动重连
+     */
+    @Value("${todo-events.timeout:1800000}")
+    private Long timeout;
+
+    /**
+     * 重连时最多补发的变更行数
+     */
+    @Value("${todo-events.replay-limit:200}")
+    private Integer replayLimit;
+
+    /**
+     * 单个事件携带的最大ID数，超出时不带ID
+     */
+    @Value("${todo-events.max-ids:100}")
+    private Integer maxIds;
+
+    /**
+     * 用户ID -> 本节点上的连接
+     */
+    private final Map<Long, Set<SseEmitter>> emitters = new ConcurrentHashMap<>();
+
+    private final AtomicInteger connections = new AtomicInteger();
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("todo.events.connections", connections, AtomicInteger::get)
+                .description("本节点的实时推送连接数")
+                .register(meterRegistry);
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        // 关闭连接让客户端尽快重连到其他节点
+        emitters.values().forEach(set -> set.forEach(SseEmitter::complete));
+    }
+
+    /**
+     * 建立推送连接
+     *
+     * @param userId 用户ID
+     * @param lastEventId 客户端收到的最后一个事件ID（变更序号），首次连接为null
+     * @return 推送连接
+     */
+    public SseEmitter subscribe(Long userId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeout);
+        // 先注册再补发：补发期间发生的变更可能重复推送，但不会遗漏
+        register(userId, emitter);
+
+        try {
+            if (lastEventId == null) {
+                Long changeSeq = userMapper.selectChangeSeq(userId);
+                send(emitter, SseEmitter.event().id(String.valueOf(changeSeq)).name(READY).data(""));
+            } else {
+                replay(userId, lastEventId, emitter);
+            }
+        } catch (Exception e) {
+            log.warn("推送连接初始化失败: userId={}", userId, e);
+            unregister(userId, emitter);
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    /**
+     * 发布变更事件（事务提交后发送，回滚时不发送）
+     *
+     * @param userId 用户ID
+     * @param changeSeq 变更序号
+     * @param type 事件类型
+     * @param ids 变化的待办事项ID，未知时为null
+     */
+    public void publish(Long userId, Long changeSeq, String type, Collection<Long> ids) {
+        if (ids != null && ids.isEmpty()) {
+            return;
+        }
+        List<Long> eventIds = ids == null || ids.size() > maxIds ? null : new ArrayList<>(ids);
+        TodoChangeEvent event = new TodoChangeEvent(changeSeq, type, eventIds);
+        TransactionUtils.afterCommit(() -> {
+            try {
+                stringRedisTemplate.convertAndSend(CHANNEL, userId + "|" + objectMapper.writeValueAsString(event));
+            } catch (Exception e) {
+                log.warn("发布待办事项变更事件失败: userId={}, seq={}", userId, changeSeq, e);
+            }
+        });
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf('|');
+        if (separator < 0) {
+            return;
+        }
+
+        try {
+            Long userId = Long.valueOf(body.substring(0, separator));
+            Set<SseEmitter> userEmitters = emitters.get(userId);
+            if (userEmitters == null) {
+                return;
+            }
+
+            String data = body.substring(separator + 1);
+            TodoChangeEvent event = objectMapper.readValue(data, TodoChangeEvent.class);
+            for (SseEmitter emitter : userEmitters) {
+                if (!send(emitter, SseEmitter.event()
+                        .id(String.valueOf(event.getSeq()))
+                        .name(event.getType())
+                        .data(data, MediaType.APPLICATION_JSON))) {
+                    unregister(userId, emitter);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("处理待办事项变更事件失败: {}", body, e);
+        }
+    }
+
+    /**
+     * 定时向所有连接发送心跳，同时清理已断开的连接
+     */
+    @Scheduled(fixedDelayString = "${todo-events.heartbeat-interval:25000}")
+    public void heartbeat() {
+        emitters.forEach((userId, userEmitters) -> {
+            for (SseEmitter emitter : userEmitters) {
+                if (!send(emitter, SseEmitter.event().comment("heartbeat"))) {
+                    unregister(userId, emitter);
+                }
+            }
+        });
+    }
+
+    /**
+     * 补发 lastEventId 之后的变更，按变更序号和类型合并为事件
+     */
+    private void replay(Long userId, Long lastEventId, SseEmitter emitter) throws IOException {
+        List<Todo> rows = todoMapper.selectChangedSince(userId, lastEventId, Long.MAX_VALUE, replayLimit + 1);
+        if (rows.size() > replayLimit) {
+            emitter.send(SseEmitter.event().name(RESET).data(""));
+            return;
+        }
+
+        Map<String, TodoChangeEvent> events = new LinkedHashMap<>();
+        for (Todo todo : rows) {
+            String type = Integer.valueOf(1).equals(todo.getDeleted()) ? TodoChangeEvent.PURGED
+                    : Integer.valueOf(1).equals(todo.getIsDeleted()) ? TodoChangeEvent.REMOVED
+                    : TodoChangeEvent.SAVED;
+            events.computeIfAbsent(todo.getChangeSeq() + type,
+                    key -> new TodoChangeEvent(todo.getChangeSeq(), type, new ArrayList<>()))
+                    .getIds().add(todo.getId());
+        }
+        for (TodoChangeEvent event : events.values()) {
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(event.getSeq()))
+                    .name(event.getType())
+                    .data(objectMapper.writeValueAsString(event), MediaType.APPLICATION_JSON));
+        }
+    }
+
+    private void register(Long userId, SseEmitter emitter) {
+        emitters.computeIfAbsent(userId, key -> ConcurrentHashMap.newKeySet()).add(emitter);
+        connections.incrementAndGet();
+        emitter.onCompletion(() -> unregister(userId, emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> unregister(userId, emitter));
+    }
+
+    private void unregister(Long userId, SseEmitter emitter) {
+        emitters.computeIfPresent(userId, (key, set) -> {
+            if (set.remove(emitter)) {
+                connections.decrementAndGet();
+            }
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    /**
+     * 发送事件，连接已断开时返回false
+     */
+    private static boolean send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.uiineed.todo.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.uiineed.todo.converter.TodoConverter;
+import com.uiineed.todo.entity.Todo;
+import com.uiineed.todo.mapper.TodoMapper;
+import com.uiineed.todo.vo.TodoResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 待办事项导出服务
+ *
+ * <p>通过MyBatis游标逐行读取，读一行写一行，内存占用与导出行数无关。</p>
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+public class TodoExportService {
+
+    /**
+     * NDJSON格式（每行一个JSON对象）
+     */
+    public static final String NDJSON = "ndjson";
+
+    /**
+     * CSV格式（UTF-8带BOM，便于Excel直接打开）
+     */
+    public static final String CSV = "csv";
+
+    private static final String CSV_HEADER = "id,title,description,priority,status,completed,removed,"
+            + "dueDate,reminderTime,completedAt,categoryId,sortOrder,deletedAt,createdAt,updatedAt";
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Autowired
+    private TodoMapper todoMapper;
+
+    @Autowired
+    private TodoConverter todoConverter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * 导出用户的待办事项
+     *
+     * @param userId 用户ID
+     * @param format 导出格式：ndjson、csv
+     * @param includeTrashed 是否包含回收站中的待办事项
+     * @param out 输出流（调用方负责关闭）
+     * @return 导出行数
+     * @throws IOException 写出失败（通常是客户端断开）
+     */
+    @Transactional(readOnly = true)
+    public long export(Long userId, String format, boolean includeTrashed, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        long rows;
+        try (Cursor<Todo> cursor = todoMapper.streamByUserId(userId, includeTrashed)) {
+            rows = CSV.equals(format) ? writeCsv(cursor, out) : writeNdjson(cursor, out);
+        }
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        log.info("导出待办事项完成: userId={}, format={}, rows={}, 耗时={}ms, 速率={}行/秒",
+                userId, format, rows, elapsedMillis, rows * 1000 / elapsedMillis);
+        return rows;
+    }
+
+    private long writeNdjson(Cursor<Todo> cursor, OutputStream out) throws IOException {
+        long rows = 0;
+        // 不逐行flush，由缓冲区写满时按块发送
+        ObjectWriter objectWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        for (Todo todo : cursor) {
+            objectWriter.writeValue(generator, todoConverter.toResponse(todo));
+            generator.writeRaw('\n');
+            rows++;
+        }
+        generator.flush();
+        return rows;
+    }
+
+    private long writeCsv(Cursor<Todo> cursor, OutputStream out) throws IOException {
+        long rows = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write('\uFEFF');
+        writer.write(CSV_HEADER);
+        writer.write("\r\n");
+        for (Todo todo : cursor) {
+            TodoResponse response = todoConverter.toResponse(todo);
+            writer.write(String.valueOf(response.getId()));
+            writeCsvField(writer, response.getTitle());
+            writeCsvField(writer, response.getDescription());
+            writeCsvField(writer, response.getPriority());
+            writeCsvField(writer, response.getStatus());
+            writeCsvField(writer, response.getCompleted());
+            writeCsvField(writer, response.getRemoved());
+            writeCsvField(writer, response.getDueDate());
+            writeCsvField(writer, response.getReminderTime());
+            writeCsvField(writer, response.getCompletedAt());
+            writeCsvField(writer, response.getCategoryId());
+            writeCsvField(writer, response.getSortOrder());
+            writeCsvField(writer, response.getDeletedAt());
+            writeCsvField(writer, response.getCreatedAt());
+            writeCsvField(writer, response.getUpdatedAt());
+            writer.write("\r\n");
+            rows++;
+        }
+        writer.flush();
+        return rows;
+    }
+
+    /**
+     * 写出一个CSV字段（前置逗号），包含逗号、引号或换行时加引号转义
+     *
+     * <p>文本以 = + - @ 制表符或回车开头时前置单引号，Excel打开时按文本显示，不作为公式执行（CSV注入）。</p>
+     */
+    private static void writeCsvField(Writer writer, Object value) throws IOException {
+        writer.write(',');
+        if (value == null) {
+            return;
+        }
+        String text = value instanceof LocalDateTime
+                ? DATE_TIME_FORMATTER.format((LocalDateTime) value)
+                : String.valueOf(value);
+        if (value instanceof CharSequence && isFormulaLeading(text)) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static boolean isFormulaLeading(String text) {
+        if (text.isEmpty()) {
+            return false;
+        }
+        char first = text.charAt(0);
+        return first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r';
+    }
+}
@@ -0,0 +1,181 @@
+package com.uiineed.todo.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uiineed.todo.entity.Todo;
+import com.uiineed.todo.vo.TodoImportItem;
+import com.uiineed.todo.vo.TodoImportResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 待办事项导入服务
+ *
+ * <p>边解析边校验，请求体可以是JSON数组，也可以是NDJSON（每行一个JSON对象）。
+ * 通过校验的条目攒够一批后用一条多行INSERT写入，每批一个事务；
+ * 单个条目校验失败或某一批写入失败只记录错误，不影响其余条目。</p>
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+public class TodoImportService {
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    /**
+     * 每批插入的条目数
+     */
+    @Value("${todo-import.batch-size:500}")
+    private Integer batchSize;
+
+    /**
+     * 单次导入的最大条目数，超出部分不再读取
+     */
+    @Value("${todo-import.max-items:10000}")
+    private Integer maxItems;
+
+    /**
+     * 导入待办事项
+     *
+     * @param userId 用户ID
+     * @param in 请求体（JSON数组或NDJSON）
+     * @return 导入结果
+     * @throws IOException 读取请求体失败
+     */
+    public TodoImportResponse importTodos(Long userId, InputStream in) throws IOException {
+        long start = System.nanoTime();
+        TodoImportResponse response = new TodoImportResponse();
+
+        List<Todo> batch = new ArrayList<>(batchSize);
+        List<Integer> batchIndexes = new ArrayList<>(batchSize);
+
+        int index = 0;
+        try (MappingIterator<TodoImportItem> items = objectMapper.readerFor(TodoImportItem.class).readValues(in)) {
+            while (true) {
+                TodoImportItem item;
+                try {
+                    if (!items.hasNextValue()) {
+                        break;
+                    }
+                    if (index >= maxItems) {
+                        addError(response, index, "超过单次导入上限" + maxItems + "条，其余条目未导入");
+                        break;
+                    }
+                    item = items.nextValue();
+                } catch (JsonParseException e) {
+                    // 语法错误之后无法定位下一个条目，停止读取
+                    addError(response, index, "JSON格式错误: " + e.getOriginalMessage());
+                    break;
+                } catch (JsonMappingException e) {
+                    addError(response, index++, "字段格式错误: " + e.getOriginalMessage());
+                    continue;
+                }
+
+                String error = validate(item);
+                if (error != null) {
+                    addError(response, index++, error);
+                    continue;
+                }
+
+                batch.add(toTodo(userId, item));
+                batchIndexes.add(index++);
+                if (batch.size() >= batchSize) {
+                    flush(userId, batch, batchIndexes, response);
+                }
+            }
+        }
+        flush(userId, batch, batchIndexes, response);
+        response.setTotal(index);
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        log.info("导入待办事项完成: userId={}, total={}, imported={}, failed={}, 耗时={}ms",
+                userId, response.getTotal(), response.getImported(), response.getFailed(), elapsedMillis);
+        return response;
+    }
+
+    /**
+     * 写入一批条目，失败时整批记为错误
+     */
+    private void flush(Long userId, List<Todo> batch, List<Integer> batchIndexes, TodoImportResponse response) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            todoService.importTodos(userId, new ArrayList<>(batch));
+            response.setImported(response.getImported() + batch.size());
+        } catch (Exception e) {
+            log.error("批量导入待办事项失败: userId={}, count={}", userId, batch.size(), e);
+            for (Integer index : batchIndexes) {
+                addError(response, index, "保存失败");
+            }
+        }
+        batch.clear();
+        batchIndexes.clear();
+    }
+
+    private String validate(TodoImportItem item) {
+        if (item == null) {
+            return "条目不能为空";
+        }
+        Set<ConstraintViolation<TodoImportItem>> violations = validator.validate(item);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private Todo toTodo(Long userId, TodoImportItem item) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer status = item.getStatus() != null ? item.getStatus()
+                : Boolean.TRUE.equals(item.getCompleted()) ? Todo.Status.COMPLETED : Todo.Status.TODO;
+        boolean removed = Boolean.TRUE.equals(item.getRemoved());
+
+        Todo todo = new Todo();
+        todo.setUserId(userId);
+        todo.setCategoryId(item.getCategoryId());
+        todo.setTitle(item.getTitle());
+        todo.setDescription(item.getDescription());
+        todo.setPriority(item.getPriority() != null ? item.getPriority() : Todo.Priority.MEDIUM);
+        todo.setStatus(status);
+        todo.setCompletedAt(status == Todo.Status.COMPLETED ? now : null);
+        todo.setDueDate(item.getDueDate());
+        todo.setReminderTime(item.getReminderTime());
+        todo.setIsDeleted(removed ? 1 : 0);
+        todo.setDeletedAt(removed ? now : null);
+        todo.setDeleted(0);
+        todo.setCreatedAt(now);
+        todo.setUpdatedAt(now);
+        return todo;
+    }
+
+    private static void addError(TodoImportResponse response, int index, String message) {
+        response.getErrors().add(new TodoImportResponse.ItemError(index, message));
+        response.setFailed(response.getFailed() + 1);
+    }
+}
@@ -0,0 +1,195 @@
+package com.uiineed.todo.service;
+
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.uiineed.todo.cache.CachedList;
+import com.uiineed.todo.cache.CachedPage;
+import com.uiineed.todo.cache.TwoLevelCache;
+import com.uiineed.todo.cache.TwoLevelCacheManager;
+import com.uiineed.todo.config.LocalCacheConfig;
+import com.uiineed.todo.entity.Todo;
+import com.uiineed.todo.util.TransactionUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 待办事项列表缓存
+ *
+ * <p>列表分页结果缓存在两级缓存中，键包含用户的列表版本号。每个用户在Redis中有一个
+ * 版本计数器，任何修改都在事务提交后递增版本号，旧版本的缓存自然不再被命中并随TTL过期，
+ * 失效是O(1)的，不需要扫描键。版本号在本地缓存，递增时通过发布/订阅同步到其他节点。</p>
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+public class TodoListCache implements MessageListener {
+
+    private static final String VERSION_KEY_PREFIX = "todo:list:version:";
+    private static final String CHANNEL = "todo:list:version";
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Autowired
+    private TwoLevelCacheManager twoLevelCacheManager;
+
+    @Autowired
+    private LocalCacheConfig localCacheConfig;
+
+    /**
+     * 本地版本号：用户ID -> 列表版本
+     */
+    private Cache<Long, Long> versions;
+
+    /**
+     * 列表分页缓存
+     */
+    private TwoLevelCache<CachedPage> pages;
+
+    /**
+     * 按天分桶的截止日期视图缓存（今日、逾期、即将到期）
+     */
+    private TwoLevelCache<CachedList> dueBuckets;
+
+    @PostConstruct
+    public void init() {
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(localCacheConfig.getTodoListMaxSize())
+                .expireAfterWrite(Duration.ofMillis(localCacheConfig.getListVersionTtl()))
+                .build();
+        this.pages = twoLevelCacheManager.create("user_todos", CachedPage.class,
+                localCacheConfig.getTodoListMaxSize(), Duration.ofMillis(localCacheConfig.getTodoListTtl()));
+        this.dueBuckets = twoLevelCacheManager.create("todo_due", CachedList.class,
+                localCacheConfig.getTodoListMaxSize(), Duration.ofMillis(localCacheConfig.getTodoListTtl()));
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    /**
+     * 读取列表分页，未命中时调用加载函数
+     *
+     * @param userId 用户ID
+     * @param status 状态过滤（可为null）
+     * @param fields 字段投影签名
+     * @param current 页码
+     * @param size 每页大小
+     * @param loader 加载函数
+     * @return 分页结果
+     */
+    @SuppressWarnings("unchecked")
+    public IPage<Todo> getPage(Long userId, Integer status, String fields, long current, long size,
+                               Supplier<IPage<Todo>> loader) {
+        long version;
+        try {
+            version = currentVersion(userId);
+        } catch (Exception e) {
+            // 拿不到版本号时无法保证缓存新鲜，直接查询
+            log.warn("读取列表版本失败，跳过缓存: userId={}", userId, e);
+            return loader.get();
+        }
+
+        String key = userId + ":" + status + ":" + fields + ":" + current + ":" + size + ":" + version;
+        CachedPage<Todo> page = pages.get(key, () -> new CachedPage<>(loader.get()));
+        return page.toPage();
+    }
+
+    /**
+     * 读取截止日期视图的日桶，未命中时调用加载函数
+     *
+     * <p>桶名中包含日期，跨过零点后使用新的桶，旧桶随TTL过期。</p>
+     *
+     * @param userId 用户ID
+     * @param bucket 桶名（视图名 + 日期 + 参数）
+     * @param loader 加载函数
+     * @return 记录列表
+     */
+    @SuppressWarnings("unchecked")
+    public List<Todo> getDueBucket(Long userId, String bucket, Supplier<List<Todo>> loader) {
+        long version;
+        try {
+            version = currentVersion(userId);
+        } catch (Exception e) {
+            log.warn("读取列表版本失败，跳过缓存: userId={}", userId, e);
+            return loader.get();
+        }
+
+        String key = userId + ":" + bucket + ":" + version;
+        CachedList<Todo> records = dueBuckets.get(key, () -> new CachedList<>(loader.get()));
+        return records.toList();
+    }
+
+    /**
+     * 当前列表版本
+     *
+     * @param userId 用户ID
+     * @return 版本号，从未修改过时为0
+     */
+    public long currentVersion(Long userId) {
+        return versions.get(userId, this::readVersion);
+    }
+
+    /**
+     * 递增列表版本；在事务中时等提交后再递增，避免其他请求在提交前按新版本缓存旧数据
+     *
+     * @param userId 用户ID
+     */
+    public void bumpVersion(Long userId) {
+        TransactionUtils.afterCommit(() -> doBumpVersion(userId));
+    }
+
+    /**
+     * 接收其他节点的版本变化
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(':');
+        if (separator <= 0) {
+            return;
+        }
+
+        try {
+            Long userId = Long.valueOf(body.substring(0, separator));
+            Long version = Long.valueOf(body.substring(separator + 1));
+            versions.asMap().merge(userId, version, Math::max);
+        } catch (NumberFormatException e) {
+            log.warn("无效的列表版本消息: {}", body);
+        }
+    }
+
+    private void doBumpVersion(Long userId) {
+        try {
+            Long version = stringRedisTemplate.opsForValue().increment(VERSION_KEY_PREFIX + userId);
+            if (version != null) {
+                versions.asMap().merge(userId, version, Math::max);
+                stringRedisTemplate.convertAndSend(CHANNEL, userId + ":" + version);
+            }
+        } catch (Exception e) {
+            // Redis不可用时丢弃本地版本，下次读取重新从Redis获取
+            log.error("递增列表版本失败: userId={}", userId, e);
+            versions.invalidate(userId);
+        }
+    }
+
+    private Long readVersion(Long userId) {
+        String version = stringRedisTemplate.opsForValue().get(VERSION_KEY_PREFIX + userId);
+        return version == null ? 0L : Long.parseLong(version);
+    }
+}
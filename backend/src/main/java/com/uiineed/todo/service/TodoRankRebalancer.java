@@ -0,0 +1,80 @@
+package com.uiineed.todo.service;
+
+import com.uiineed.todo.util.TransactionUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 排序序号后台重排
+ *
+ * <p>拖动排序取相邻两项的中点，同一位置反复插入会让间隔越来越小。
+ * 间隔低于阈值时由 TodoService 在事务提交后调度到这里，单线程逐个用户重排；
+ * 同一用户排队期间重复调度只执行一次。</p>
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+public class TodoRankRebalancer {
+
+    /**
+     * TodoService 依赖本类调度重排，延迟注入避免循环依赖
+     */
+    @Lazy
+    @Autowired
+    private TodoService todoService;
+
+    /**
+     * 已排队等待重排的用户
+     */
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    private ExecutorService worker;
+
+    @PostConstruct
+    public void init() {
+        this.worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "todo-rank-rebalancer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        worker.shutdownNow();
+    }
+
+    /**
+     * 调度重排（在当前事务提交后执行）
+     *
+     * @param userId 用户ID
+     */
+    public void schedule(Long userId) {
+        TransactionUtils.afterCommit(() -> submit(userId));
+    }
+
+    private void submit(Long userId) {
+        if (!pending.add(userId)) {
+            return;
+        }
+        worker.execute(() -> {
+            pending.remove(userId);
+            try {
+                todoService.rebalanceRanks(userId);
+            } catch (Exception e) {
+                log.warn("重排待办事项排序序号失败: userId={}", userId, e);
+            }
+        });
+    }
+}
@@ -0,0 +1,553 @@
+package com.uiineed.todo.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.uiineed.todo.entity.Todo;
+import com.uiineed.todo.mapper.TodoMapper;
+import com.uiineed.todo.util.TransactionUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * 待办事项全文检索索引
+ *
+ * <p>每个用户一份进程内倒排索引，标题和描述按二元组（bigram）切分，中文无需分词。
+ * 首次搜索时从数据库构建，之后由 TodoService 的写操作在事务提交后增量更新；
+ * 其他节点通过发布/订阅收到变化的待办事项ID，按ID重新读取后更新自己的索引。
+ * 索引定期在后台重建，修复可能遗漏的消息。</p>
+ *
+ * <p>构建期间到达的修改记入该次构建的日志，快照读取完成后按顺序重放到新索引再替换旧索引，
+ * 快照之后提交的修改不会被较早的快照覆盖。每次修改后重新放回缓存，按新的文档数重新称重。</p>
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+public class TodoSearchIndex implements MessageListener {
+
+    private static final String CHANNEL = "todo:search:changed";
+
+    /**
+     * 当前节点标识，用于忽略自己发出的消息
+     */
+    private static final String NODE_ID = UUID.randomUUID().toString();
+
+    @Autowired
+    private TodoMapper todoMapper;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 所有用户索引中文档总数的上限
+     */
+    @Value("${todo-search.max-documents:1000000}")
+    private Long maxDocuments;
+
+    /**
+     * 索引后台重建间隔（毫秒）
+     */
+    @Value("${todo-search.refresh-interval:1800000}")
+    private Long refreshInterval;
+
+    /**
+     * 空闲索引的保留时间（毫秒）
+     */
+    @Value("${todo-search.idle-timeout:3600000}")
+    private Long idleTimeout;
+
+    /**
+     * 用户ID -> 索引
+     */
+    private Cache<Long, UserIndex> indexes;
+
+    /**
+     * 用户ID -> 进行中的构建
+     */
+    private final ConcurrentMap<Long, PendingBuild> builds = new ConcurrentHashMap<>();
+
+    private Timer searchTimer;
+
+    private Timer buildTimer;
+
+    @PostConstruct
+    public void init() {
+        this.indexes = Caffeine.newBuilder()
+                .maximumWeight(maxDocuments)
+                .weigher((Long userId, UserIndex index) -> Math.max(1, index.size()))
+                .expireAfterAccess(idleTimeout, TimeUnit.MILLISECONDS)
+                .build();
+        this.searchTimer = Timer.builder("todo.search")
+                .description("待办事项检索耗时")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.buildTimer = Timer.builder("todo.search.build")
+                .description("构建用户检索索引耗时")
+                .register(meterRegistry);
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    /**
+     * 搜索待办事项
+     *
+     * @param userId 用户ID
+     * @param query 关键词，多个词以空白分隔，须全部命中
+     * @param limit 最大返回数量
+     * @return 命中的待办事项ID，标题命中在前，描述命中在后，同组内新建的在前
+     */
+    public List<Long> search(Long userId, String query, int limit) {
+        List<String> terms = terms(query);
+        if (terms.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        long start = System.nanoTime();
+        try {
+            UserIndex index = indexes.getIfPresent(userId);
+            if (index == null) {
+                index = startBuild(userId, Runnable::run).join();
+            } else if (System.nanoTime() - index.builtAt > TimeUnit.MILLISECONDS.toNanos(refreshInterval)) {
+                // 过期的索引照常使用，同时在后台重建
+                startBuild(userId, ForkJoinPool.commonPool());
+            }
+            return index.search(terms, limit);
+        } finally {
+            searchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 待办事项新建、修改或恢复
+     *
+     * @param todo 修改后的待办事项
+     */
+    public void onSaved(Todo todo) {
+        if (todo == null) {
+            return;
+        }
+        onSaved(todo.getUserId(), Collections.singletonList(todo));
+    }
+
+    /**
+     * 一批待办事项新建、修改或恢复（同一用户）
+     *
+     * @param userId 用户ID
+     * @param todos 修改后的待办事项
+     */
+    public void onSaved(Long userId, List<Todo> todos) {
+        if (todos.isEmpty()) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> {
+            apply(userId, index -> todos.forEach(index::put));
+            publish(userId, todos.stream().map(Todo::getId).collect(Collectors.toList()));
+        });
+    }
+
+    /**
+     * 待办事项移入回收站
+     *
+     * @param userId 用户ID
+     * @param ids 待办事项ID
+     */
+    public void onRemoved(Long userId, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Long> removedIds = new ArrayList<>(ids);
+        TransactionUtils.afterCommit(() -> {
+            apply(userId, index -> removedIds.forEach(index::remove));
+            publish(userId, removedIds);
+        });
+    }
+
+    /**
+     * 在后台重建用户索引（只对本节点已加载的索引生效）
+     *
+     * @param userId 用户ID
+     */
+    public void rebuild(Long userId) {
+        if (indexes.getIfPresent(userId) != null) {
+            startBuild(userId, ForkJoinPool.commonPool());
+        }
+    }
+
+    /**
+     * 接收其他节点的变化，按ID重新读取后更新本节点索引
+     *
+     * <p>消息格式：节点ID|用户ID|待办事项ID,待办事项ID...</p>
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|");
+        if (parts.length != 3 || NODE_ID.equals(parts[0])) {
+            return;
+        }
+
+        try {
+            Long userId = Long.valueOf(parts[1]);
+            if (indexes.getIfPresent(userId) == null && !builds.containsKey(userId)) {
+                return;
+            }
+
+            List<Long> ids = new ArrayList<>();
+            for (String id : parts[2].split(",")) {
+                ids.add(Long.valueOf(id));
+            }
+
+            List<Todo> todos = todoMapper.selectList(documentQuery(userId).in("id", ids));
+            Set<Long> alive = todos.stream().map(Todo::getId).collect(Collectors.toSet());
+            apply(userId, index -> {
+                todos.forEach(index::put);
+                ids.stream().filter(id -> !alive.contains(id)).forEach(index::remove);
+            });
+        } catch (Exception e) {
+            log.warn("处理检索索引变化消息失败: {}", parts[1], e);
+        }
+    }
+
+    /**
+     * 把一次修改应用到用户的索引，并记入进行中的构建日志
+     *
+     * <p>先记日志再修改当前索引：构建在替换前重放日志，修改要么在日志中，要么直接作用在替换后的索引上。</p>
+     */
+    private void apply(Long userId, Consumer<UserIndex> change) {
+        builds.computeIfPresent(userId, (key, pending) -> {
+            pending.journal.add(change);
+            return pending;
+        });
+        UserIndex index = indexes.getIfPresent(userId);
+        if (index != null) {
+            change.accept(index);
+            // 重新放回同一个实例，Caffeine按新的文档数重新称重
+            indexes.asMap().replace(userId, index, index);
+        }
+    }
+
+    /**
+     * 开始构建用户索引；已有进行中的构建时返回该构建
+     *
+     * @param userId 用户ID
+     * @param executor 执行构建的线程（同步构建时为调用线程）
+     * @return 构建结果
+     */
+    private CompletableFuture<UserIndex> startBuild(Long userId, Executor executor) {
+        PendingBuild created = new PendingBuild();
+        PendingBuild existing = builds.putIfAbsent(userId, created);
+        if (existing != null) {
+            return existing.result;
+        }
+
+        executor.execute(() -> {
+            try {
+                UserIndex index = build(userId);
+                // 重放与替换在同一个原子操作中完成，期间的修改要么已在日志中，要么在替换后直接作用于新索引
+                builds.compute(userId, (key, pending) -> {
+                    pending.journal.forEach(change -> change.accept(index));
+                    indexes.put(userId, index);
+                    return null;
+                });
+                created.result.complete(index);
+            } catch (Throwable e) {
+                builds.remove(userId, created);
+                log.warn("构建检索索引失败: userId={}", userId, e);
+                created.result.completeExceptionally(e);
+            }
+        });
+        return created.result;
+    }
+
+    /**
+     * 从数据库构建用户索引
+     */
+    private UserIndex build(Long userId) {
+        long start = System.nanoTime();
+        UserIndex index = new UserIndex();
+        for (Todo todo : todoMapper.selectList(documentQuery(userId))) {
+            index.put(todo);
+        }
+        buildTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        log.debug("构建检索索引: userId={}, 文档数={}", userId, index.size());
+        return index;
+    }
+
+    private QueryWrapper<Todo> documentQuery(Long userId) {
+        QueryWrapper<Todo> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("id", "user_id", "title", "description")
+                   .eq("user_id", userId)
+                   .eq("is_deleted", 0);
+        return queryWrapper;
+    }
+
+    private void publish(Long userId, List<Long> ids) {
+        try {
+            String body = NODE_ID + "|" + userId + "|"
+                    + ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+            stringRedisTemplate.convertAndSend(CHANNEL, body);
+        } catch (Exception e) {
+            log.warn("发布检索索引变化失败: userId={}", userId, e);
+        }
+    }
+
+    /**
+     * 规范化文本：转小写，连续的空白和标点视为一个分隔符
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder builder = new StringBuilder(text.length());
+        boolean separator = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (separator && builder.length() > 0) {
+                    builder.append(' ');
+                }
+                builder.append(Character.toLowerCase(c));
+                separator = false;
+            } else {
+                separator = true;
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 切分查询词
+     */
+    static List<String> terms(String query) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(new TreeSet<>(List.of(normalized.split(" "))));
+    }
+
+    /**
+     * 生成二元组：每个词内相邻两个字符组成一个元组，单字符词保留自身
+     */
+    static Set<String> grams(String normalized) {
+        Set<String> grams = new HashSet<>();
+        for (String token : normalized.split(" ")) {
+            if (token.length() == 1) {
+                grams.add(token);
+            }
+            for (int i = 0; i + 2 <= token.length(); i++) {
+                grams.add(token.substring(i, i + 2));
+            }
+        }
+        return grams;
+    }
+
+    /**
+     * 进行中的构建：构建期间到达的修改，和构建结果
+     */
+    private static class PendingBuild {
+
+        /**
+         * 只在 builds 的原子操作中读写
+         */
+        private final List<Consumer<UserIndex>> journal = new ArrayList<>();
+
+        private final CompletableFuture<UserIndex> result = new CompletableFuture<>();
+    }
+
+    /**
+     * 单个用户的倒排索引
+     */
+    static class UserIndex {
+
+        /**
+         * 构建时间（System.nanoTime），超过重建间隔后在后台重建
+         */
+        private final long builtAt = System.nanoTime();
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        /**
+         * 待办事项ID -> 规范化后的标题
+         */
+        private final Map<Long, String> titles = new HashMap<>();
+
+        /**
+         * 待办事项ID -> 规范化后的描述
+         */
+        private final Map<Long, String> descriptions = new HashMap<>();
+
+        /**
+         * 二元组 -> 标题或描述中包含该元组的待办事项ID
+         */
+        private final Map<String, Set<Long>> postings = new HashMap<>();
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return titles.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void put(Todo todo) {
+            String title = normalize(todo.getTitle());
+            String description = normalize(todo.getDescription());
+
+            lock.writeLock().lock();
+            try {
+                removeInternal(todo.getId());
+                titles.put(todo.getId(), title);
+                descriptions.put(todo.getId(), description);
+                Set<String> grams = grams(title);
+                grams.addAll(grams(description));
+                for (String gram : grams) {
+                    postings.computeIfAbsent(gram, key -> new HashSet<>()).add(todo.getId());
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(Long id) {
+            lock.writeLock().lock();
+            try {
+                removeInternal(id);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        List<Long> search(List<String> terms, int limit) {
+            lock.readLock().lock();
+            try {
+                Collection<Long> candidates = candidates(terms);
+
+                // 倒排表只做粗筛，再按原文确认，标题全部命中的排在前面
+                TreeSet<Long> titleHits = new TreeSet<>(Collections.reverseOrder());
+                TreeSet<Long> descriptionHits = new TreeSet<>(Collections.reverseOrder());
+                for (Long id : candidates) {
+                    String title = titles.get(id);
+                    String description = descriptions.get(id);
+                    if (title == null) {
+                        continue;
+                    }
+                    if (containsAll(title, terms)) {
+                        titleHits.add(id);
+                    } else if (containsAll(title + " " + description, terms)) {
+                        descriptionHits.add(id);
+                    }
+                }
+
+                List<Long> result = new ArrayList<>(Math.min(limit, titleHits.size() + descriptionHits.size()));
+                for (Long id : titleHits) {
+                    if (result.size() >= limit) {
+                        return result;
+                    }
+                    result.add(id);
+                }
+                for (Long id : descriptionHits) {
+                    if (result.size() >= limit) {
+                        return result;
+                    }
+                    result.add(id);
+                }
+                return result;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * 候选集：所有查询词的所有二元组的倒排表交集；单字符查询词没有二元组，只能全量确认
+         */
+        private Collection<Long> candidates(List<String> terms) {
+            Set<Long> result = null;
+            for (String term : terms) {
+                if (term.length() < 2) {
+                    continue;
+                }
+                for (String gram : grams(term)) {
+                    Set<Long> posting = postings.getOrDefault(gram, Collections.emptySet());
+                    if (result == null) {
+                        result = new HashSet<>(posting);
+                    } else {
+                        result.retainAll(posting);
+                    }
+                    if (result.isEmpty()) {
+                        return result;
+                    }
+                }
+            }
+            return result == null ? titles.keySet() : result;
+        }
+
+        private void removeInternal(Long id) {
+            String title = titles.remove(id);
+            String description = descriptions.remove(id);
+            if (title == null) {
+                return;
+            }
+            Set<String> grams = grams(title);
+            grams.addAll(grams(description));
+            for (String gram : grams) {
+                Set<Long> posting = postings.get(gram);
+                if (posting != null) {
+                    posting.remove(id);
+                    if (posting.isEmpty()) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+        }
+
+        private static boolean containsAll(String text, List<String> terms) {
+            for (String term : terms) {
+                if (!text.contains(term)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
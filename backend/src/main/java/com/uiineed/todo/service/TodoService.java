@@ -1,17 +1,30 @@
 package com.uiineed.todo.service;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.uiineed.todo.converter.TodoConverter;
 import com.uiineed.todo.entity.Todo;
+import com.uiineed.todo.entity.User;
 import com.uiineed.todo.mapper.TodoMapper;
+import com.uiineed.todo.mapper.UserMapper;
+import com.uiineed.todo.util.PageCursor;
+import com.uiineed.todo.util.TodoFields;
+import com.uiineed.todo.vo.TodoChangeEvent;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * 待办事项服务类
@@ -24,19 +37,65 @@ import java.util.List;
 @Transactional
 public class TodoService {
 
+    /**
+     * 截止日期视图单次返回的最大记录数
+     */
+    private static final int MAX_DUE_RESULTS = 500;
+
+    /**
+     * 相邻排序序号的标准间隔：新建项的排序序号为 change_seq 左移20位，
+     * 变更序号单调递增，新建项总是排在末尾，不需要查询当前最大值
+     */
+    private static final int RANK_SHIFT = 20;
+
+    private static final long RANK_GAP = 1L << RANK_SHIFT;
+
+    /**
+     * 拖动后与相邻项的间隔低于该值时，在后台重排该用户的排序序号
+     */
+    private static final long MIN_RANK_GAP = 1L << 8;
+
+    /**
+     * 重排时每条UPDATE改写的行数
+     */
+    private static final int REBALANCE_CHUNK_SIZE = 500;
+
     @Autowired
     private TodoMapper todoMapper;
 
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private TodoListCache todoListCache;
+
+    @Autowired
+    private TodoCounterService todoCounterService;
+
+    @Autowired
+    private TodoSearchIndex todoSearchIndex;
+
+    @Autowired
+    private TodoEventService todoEventService;
+
+    @Autowired
+    private TodoRankRebalancer todoRankRebalancer;
+
+    @Autowired
+    private TodoConverter todoConverter;
+
     /**
-     * 根据用户ID获取待办事项列表
+     * 根据用户ID获取待办事项列表（经过版本化的列表缓存）
      *
      * @param userId 用户ID
      * @param status 状态过滤（可选）
      * @param page 分页参数
+     * @param fields 字段投影
      * @return 待办事项分页列表
      */
-    public IPage<Todo> getTodosByUserId(Long userId, Integer status, Page<Todo> page) {
+    public IPage<Todo> getTodosByUserId(Long userId, Integer status, Page<Todo> page, TodoFields fields) {
         QueryWrapper<Todo> queryWrapper = new QueryWrapper<>();
+        fields.applyTo(queryWrapper, "id", "sort_order", "created_at");
         queryWrapper.eq("user_id", userId)
                    .eq("deleted", 0)
                    .eq("is_deleted", 0)
@@ -47,7 +106,97 @@ public class TodoService {
             queryWrapper.eq("status", status);
         }
 
-        return todoMapper.selectPage(page, queryWrapper);
+        return todoListCache.getPage(userId, status, fields.signature(), page.getCurrent(), page.getSize(),
+                () -> selectPageWithCount(page, queryWrapper, todoCounterService.countActive(userId, status)));
+    }
+
+    /**
+     * 游标方式获取待办事项列表，按 (sort_order ASC, created_at DESC, id DESC) 排序
+     *
+     * <p>从上一页最后一条记录之后继续读取，使用索引 idx_user_active_order 定位，
+     * 不需要OFFSET和COUNT。多取一条用于判断是否还有下一页。</p>
+     *
+     * @param userId 用户ID
+     * @param status 状态过滤（可选）
+     * @param cursor 续读位置，第一页为null
+     * @param size 每页大小
+     * @param fields 字段投影
+     * @return 最多 size + 1 条记录
+     */
+    @Transactional(readOnly = true)
+    public List<Todo> getTodosByCursor(Long userId, Integer status, PageCursor cursor, int size, TodoFields fields) {
+        QueryWrapper<Todo> queryWrapper = new QueryWrapper<>();
+        fields.applyTo(queryWrapper, "id", "sort_order", "created_at");
+        queryWrapper.eq("user_id", userId)
+                   .eq("is_deleted", 0);
+
+        if (status != null) {
+            queryWrapper.eq("status", status);
+        }
+
+        if (cursor != null) {
+            Long sortOrder = cursor.getNumber();
+            LocalDateTime createdAt = cursor.getTime();
+            queryWrapper.and(w -> w.gt("sort_order", sortOrder)
+                    .or(o -> o.eq("sort_order", sortOrder).lt("created_at", createdAt))
+                    .or(o -> o.eq("sort_order", sortOrder).eq("created_at", createdAt).lt("id", cursor.getId())));
+        }
+
+        queryWrapper.orderByAsc("sort_order")
+                   .orderByDesc("created_at")
+                   .orderByDesc("id")
+                   .last("LIMIT " + (size + 1));
+
+        return todoMapper.selectList(queryWrapper);
+    }
+
+    /**
+     * 获取今日到期的待办事项（含已完成）
+     *
+     * @param userId 用户ID
+     * @return 按截止时间排序的待办事项
+     */
+    @Transactional(readOnly = true)
+    public List<Todo> getTodayTodos(Long userId) {
+        LocalDate today = LocalDate.now();
+        return todoListCache.getDueBucket(userId, "today:" + today,
+                () -> selectByDueDate(userId, today.atStartOfDay(), today.plusDays(1).atStartOfDay(), false));
+    }
+
+    /**
+     * 获取已逾期的待办事项（待办或进行中，截止时间早于当前时间）
+     *
+     * <p>日桶中缓存截止时间早于明天零点的未完成事项，读取时再按当前时间过滤，
+     * 当天内陆续到期的事项无需重新查询。</p>
+     *
+     * @param userId 用户ID
+     * @return 按截止时间排序的待办事项
+     */
+    @Transactional(readOnly = true)
+    public List<Todo> getOverdueTodos(Long userId) {
+        LocalDate today = LocalDate.now();
+        List<Todo> dueByTomorrow = todoListCache.getDueBucket(userId, "overdue:" + today,
+                () -> selectByDueDate(userId, null, today.plusDays(1).atStartOfDay(), true));
+
+        LocalDateTime now = LocalDateTime.now();
+        return dueByTomorrow.stream()
+                .filter(todo -> todo.getDueDate().isBefore(now))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 获取即将到期的待办事项（明天起 days 天内，待办或进行中）
+     *
+     * @param userId 用户ID
+     * @param days 天数
+     * @return 按截止时间排序的待办事项
+     */
+    @Transactional(readOnly = true)
+    public List<Todo> getUpcomingTodos(Long userId, int days) {
+        LocalDate today = LocalDate.now();
+        return todoListCache.getDueBucket(userId, "upcoming:" + today + ":" + days,
+                () -> selectByDueDate(userId, today.plusDays(1).atStartOfDay(),
+                        today.plusDays(days + 1L).atStartOfDay(), true));
     }
 
     /**
@@ -77,10 +226,38 @@ public class TodoService {
     public IPage<Todo> getDeletedTodosByUserId(Long userId, Page<Todo> page) {
         QueryWrapper<Todo> queryWrapper = new QueryWrapper<>();
         queryWrapper.eq("user_id", userId)
-                   .eq("deleted", 1)
-                   .orderByDesc("deleted_at");
+                   .eq("is_deleted", 1)
+                   .orderByDesc("deleted_at")
+                   .orderByDesc("id");
 
-        return todoMapper.selectPage(page, queryWrapper);
+        return selectPageWithCount(page, queryWrapper, todoCounterService.countTrashed(userId));
+    }
+
+    /**
+     * 游标方式获取已删除的待办事项，按 (deleted_at DESC, id DESC) 排序
+     *
+     * @param userId 用户ID
+     * @param cursor 续读位置，第一页为null
+     * @param size 每页大小
+     * @return 最多 size + 1 条记录
+     */
+    @Transactional(readOnly = true)
+    public List<Todo> getDeletedTodosByCursor(Long userId, PageCursor cursor, int size) {
+        QueryWrapper<Todo> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("user_id", userId)
+                   .eq("is_deleted", 1);
+
+        if (cursor != null) {
+            LocalDateTime deletedAt = cursor.getTime();
+            queryWrapper.and(w -> w.lt("deleted_at", deletedAt)
+                    .or(o -> o.eq("deleted_at", deletedAt).lt("id", cursor.getId())));
+        }
+
+        queryWrapper.orderByDesc("deleted_at")
+                   .orderByDesc("id")
+                   .last("LIMIT " + (size + 1));
+
+        return todoMapper.selectList(queryWrapper);
     }
 
     /**
@@ -94,11 +271,40 @@ public class TodoService {
         QueryWrapper<Todo> queryWrapper = new QueryWrapper<>();
         queryWrapper.eq("id", id)
                    .eq("user_id", userId)
-                   .eq("deleted", 1);
+                   .eq("is_deleted", 1);
 
         return todoMapper.selectOne(queryWrapper);
     }
 
+    /**
+     * 按关键词搜索标题和描述
+     *
+     * @param userId 用户ID
+     * @param query 关键词
+     * @param limit 最大返回数量
+     * @return 命中的待办事项，标题命中在前
+     */
+    @Transactional(readOnly = true)
+    public List<Todo> searchTodos(Long userId, String query, int limit) {
+        List<Long> ids = todoSearchIndex.search(userId, query, limit);
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        QueryWrapper<Todo> queryWrapper = new QueryWrapper<>();
+        queryWrapper.in("id", ids)
+                   .eq("user_id", userId)
+                   .eq("is_deleted", 0);
+
+        // 按索引给出的排名顺序返回
+        Map<Long, Todo> todos = todoMapper.selectList(queryWrapper).stream()
+                .collect(Collectors.toMap(Todo::getId, Function.identity()));
+        return ids.stream()
+                .map(todos::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
     /**
      * 创建待办事项
      *
@@ -106,99 +312,213 @@ public class TodoService {
      * @return 创建的待办事项
      */
     public Todo createTodo(Todo todo) {
-        // 设置排序序号（如果有其他待办事项，则排在最后）
+        todo.setChangeSeq(nextChangeSeq(todo.getUserId()));
+        todo.setContentSeq(todo.getChangeSeq());
+        // 未指定排序序号时排在最后
         if (todo.getSortOrder() == null || todo.getSortOrder() == 0) {
-            QueryWrapper<Todo> queryWrapper = new QueryWrapper<>();
-            queryWrapper.eq("user_id", todo.getUserId())
-                       .eq("deleted", 0)
-                       .select("MAX(sort_order) as sort_order");
-
-            Todo maxSortTodo = todoMapper.selectOne(queryWrapper);
-            todo.setSortOrder(maxSortTodo != null ? maxSortTodo.getSortOrder() + 1 : 1);
+            todo.setSortOrder(appendRank(todo.getChangeSeq()));
         }
+        // 时间在这里确定，返回的对象与写入的行一致，无需重新读取
+        LocalDateTime now = LocalDateTime.now();
+        todo.setCreatedAt(now);
+        todo.setUpdatedAt(now);
 
         todoMapper.insert(todo);
+        todoListCache.bumpVersion(todo.getUserId());
+        todoCounterService.onChanged(null, todo);
+        todoSearchIndex.onSaved(todo);
+        todoEventService.publish(todo.getUserId(), todo.getChangeSeq(), TodoChangeEvent.SAVED,
+                Collections.singletonList(todo.getId()));
         log.info("创建待办事项成功: id={}, userId={}, title={}", todo.getId(), todo.getUserId(), todo.getTitle());
         return todo;
     }
 
     /**
-     * 更新待办事项
+     * 批量导入待办事项（一条多行INSERT），按列表顺序排在最后
      *
-     * @param todo 待办事项
-     * @return 更新后的待办事项
+     * @param userId 用户ID
+     * @param todos 待导入的待办事项
+     * @return 导入的待办事项（已回填ID）
+     */
+    public List<Todo> importTodos(Long userId, List<Todo> todos) {
+        if (todos.isEmpty()) {
+            return todos;
+        }
+
+        Long changeSeq = nextChangeSeq(userId);
+        // 整批分摊本次变更序号对应的一个间隔
+        long step = Math.max(1, RANK_GAP / todos.size());
+        long rank = appendRank(changeSeq);
+        for (Todo todo : todos) {
+            todo.setChangeSeq(changeSeq);
+            todo.setContentSeq(changeSeq);
+            todo.setSortOrder(rank);
+            rank += step;
+        }
+        todoMapper.insertBatch(todos);
+        todoListCache.bumpVersion(userId);
+        todoCounterService.onChanged(Collections.emptyList(), todos);
+        Map<Boolean, List<Long>> idsByRemoved = todos.stream().collect(Collectors.partitioningBy(
+                todo -> Integer.valueOf(1).equals(todo.getIsDeleted()),
+                Collectors.mapping(Todo::getId, Collectors.toList())));
+        todoSearchIndex.onSaved(userId, todos.stream()
+                .filter(todo -> !Integer.valueOf(1).equals(todo.getIsDeleted()))
+                .collect(Collectors.toList()));
+        todoEventService.publish(userId, changeSeq, TodoChangeEvent.SAVED, idsByRemoved.get(false));
+        todoEventService.publish(userId, changeSeq, TodoChangeEvent.REMOVED, idsByRemoved.get(true));
+        log.info("批量导入待办事项: userId={}, count={}", userId, todos.size());
+        return todos;
+    }
+
+    /**
+     * 更新待办事项（为空的字段不更新）
+     *
+     * @param todo 待办事项（须包含ID和用户ID）
+     * @return 更新后的待办事项，不存在或不属于该用户时返回null
      */
     public Todo updateTodo(Todo todo) {
-        todoMapper.updateById(todo);
-        log.info("更新待办事项成功: id={}, userId={}, title={}", todo.getId(), todo.getUserId(), todo.getTitle());
+        Todo before = prepareMutation(todo.getId(), todo.getUserId(), 0);
+        if (before == null) {
+            return null;
+        }
+
+        todo.setChangeSeq(before.getChangeSeq());
+        todo.setContentSeq(before.getChangeSeq());
+        if (todoMapper.update(todo, activeRow(todo.getId(), todo.getUserId())) != 1) {
+            return null;
+        }
 
-        // 返回更新后的数据
-        return todoMapper.selectById(todo.getId());
+        // 修改后的行由修改前的行合并本次修改得到，不再重新读取
+        Todo after = todoConverter.copy(before);
+        todoConverter.merge(todo, after);
+        after.setUpdatedAt(LocalDateTime.now());
+
+        todoListCache.bumpVersion(todo.getUserId());
+        todoCounterService.onChanged(before, after);
+        todoSearchIndex.onSaved(after);
+        todoEventService.publish(todo.getUserId(), after.getChangeSeq(), TodoChangeEvent.SAVED,
+                Collections.singletonList(todo.getId()));
+        log.info("更新待办事项成功: id={}, userId={}, title={}", todo.getId(), todo.getUserId(), todo.getTitle());
+        return after;
     }
 
     /**
      * 标记待办事项为完成
      *
+     * <p>修改前的行在分配变更序号（锁住用户行）之后读取，之后的条件UPDATE只修改状态列。</p>
+     *
      * @param id 待办事项ID
+     * @param userId 用户ID
+     * @return 是否成功，不存在或不属于该用户时返回false
      */
-    public void markAsCompleted(Long id) {
-        Todo updateTodo = new Todo();
-        updateTodo.setId(id);
-        updateTodo.setStatus(Todo.Status.COMPLETED);
-        updateTodo.setCompletedAt(LocalDateTime.now());
+    public boolean markAsCompleted(Long id, Long userId) {
+        Todo before = prepareMutation(id, userId, 0);
+        if (before == null) {
+            return false;
+        }
+        TodoMapper.Mutation mutation = newMutation(before);
+        if (todoMapper.markCompleted(mutation) != 1) {
+            return false;
+        }
 
-        todoMapper.updateById(updateTodo);
+        Todo after = stateOf(id, userId, Todo.Status.COMPLETED, before.getDueDate(), 0);
+        afterStatusChanged(mutation, before, after);
         log.info("标记待办事项完成: id={}", id);
+        return true;
     }
 
     /**
      * 标记待办事项为未完成
      *
+     * <p>只修改已完成的行，本来就未完成时不写入，视为成功。</p>
+     *
      * @param id 待办事项ID
+     * @param userId 用户ID
+     * @return 是否成功，不存在或不属于该用户时返回false
      */
-    public void markAsUncompleted(Long id) {
-        Todo updateTodo = new Todo();
-        updateTodo.setId(id);
-        updateTodo.setStatus(Todo.Status.TODO);
-        updateTodo.setCompletedAt(null);
+    public boolean markAsUncompleted(Long id, Long userId) {
+        Todo before = prepareMutation(id, userId, 0);
+        if (before == null) {
+            return false;
+        }
+        TodoMapper.Mutation mutation = newMutation(before);
+        if (todoMapper.markUncompleted(mutation) != 1) {
+            return true;
+        }
 
-        todoMapper.updateById(updateTodo);
+        Todo after = stateOf(id, userId, Todo.Status.TODO, before.getDueDate(), 0);
+        afterStatusChanged(mutation, before, after);
         log.info("标记待办事项未完成: id={}", id);
+        return true;
     }
 
     /**
-     * 软删除待办事项
+     * 软删除待办事项（移入回收站）
+     *
+     * <p>修改前的行在分配变更序号（锁住用户行）之后读取，之后的条件UPDATE只修改回收站标识。</p>
      *
      * @param id 待办事项ID
+     * @param userId 用户ID
+     * @return 是否成功，不存在或不属于该用户时返回false
      */
-    public void softDeleteTodo(Long id) {
-        Todo updateTodo = new Todo();
-        updateTodo.setId(id);
-        updateTodo.setIsDeleted(1);
-        updateTodo.setDeletedAt(LocalDateTime.now());
-        updateTodo.setDeleted(1);
+    public boolean softDeleteTodo(Long id, Long userId) {
+        Todo before = prepareMutation(id, userId, 0);
+        if (before == null) {
+            return false;
+        }
+        TodoMapper.Mutation mutation = newMutation(before);
+        if (todoMapper.moveToTrash(mutation) != 1) {
+            return false;
+        }
 
-        todoMapper.updateById(updateTodo);
+        todoListCache.bumpVersion(userId);
+        todoCounterService.onChanged(before,
+                stateOf(id, userId, before.getStatus(), before.getDueDate(), 1));
+        todoSearchIndex.onRemoved(userId, Collections.singletonList(id));
+        todoEventService.publish(userId, mutation.getChangeSeq(), TodoChangeEvent.REMOVED,
+                Collections.singletonList(id));
         log.info("软删除待办事项: id={}", id);
+        return true;
     }
 
     /**
-     * 恢复已删除的待办事项
+     * 恢复回收站中的待办事项
      *
      * @param id 待办事项ID
-     * @return 恢复后的待办事项
+     * @param userId 用户ID
+     * @return 恢复后的待办事项，不在回收站中或不属于该用户时返回null
      */
-    public Todo restoreTodo(Long id) {
-        Todo updateTodo = new Todo();
-        updateTodo.setId(id);
-        updateTodo.setIsDeleted(0);
-        updateTodo.setDeletedAt(null);
-        updateTodo.setDeleted(0);
+    public Todo restoreTodo(Long id, Long userId) {
+        Todo before = prepareMutation(id, userId, 1);
+        if (before == null) {
+            return null;
+        }
 
-        todoMapper.updateById(updateTodo);
-        log.info("恢复待办事项: id={}", id);
+        UpdateWrapper<Todo> updateWrapper = new UpdateWrapper<Todo>()
+                .eq("id", id)
+                .eq("user_id", userId)
+                .eq("deleted", 0)
+                .eq("is_deleted", 1)
+                .set("is_deleted", 0)
+                .set("deleted_at", null)
+                .set("change_seq", before.getChangeSeq())
+                .set("content_seq", before.getChangeSeq());
+        if (todoMapper.update(null, updateWrapper) != 1) {
+            return null;
+        }
+
+        Todo after = todoConverter.copy(before);
+        after.setIsDeleted(0);
+        after.setDeletedAt(null);
+        after.setUpdatedAt(LocalDateTime.now());
 
-        return todoMapper.selectById(id);
+        todoListCache.bumpVersion(userId);
+        todoCounterService.onChanged(before, after);
+        todoSearchIndex.onSaved(after);
+        todoEventService.publish(userId, before.getChangeSeq(), TodoChangeEvent.SAVED,
+                Collections.singletonList(id));
+        log.info("恢复待办事项: id={}", id);
+        return after;
     }
 
     /**
@@ -218,7 +538,17 @@ public class TodoService {
         updateTodo.setStatus(Todo.Status.COMPLETED);
         updateTodo.setCompletedAt(LocalDateTime.now());
 
+        updateTodo.setChangeSeq(nextChangeSeq(userId));
+        updateTodo.setContentSeq(updateTodo.getChangeSeq());
+
+        List<Todo> before = todoMapper.selectList(queryWrapper);
         todoMapper.update(updateTodo, queryWrapper);
+        todoListCache.bumpVersion(userId);
+        todoCounterService.onChanged(before, before.stream()
+                .map(todo -> applyChanges(todo, updateTodo))
+                .collect(Collectors.toList()));
+        todoEventService.publish(userId, updateTodo.getChangeSeq(), TodoChangeEvent.SAVED,
+                before.stream().map(Todo::getId).collect(Collectors.toList()));
         log.info("批量标记待办事项完成: ids={}, userId={}", ids, userId);
     }
 
@@ -239,7 +569,17 @@ public class TodoService {
         updateTodo.setStatus(Todo.Status.TODO);
         updateTodo.setCompletedAt(null);
 
+        updateTodo.setChangeSeq(nextChangeSeq(userId));
+        updateTodo.setContentSeq(updateTodo.getChangeSeq());
+
+        List<Todo> before = todoMapper.selectList(queryWrapper);
         todoMapper.update(updateTodo, queryWrapper);
+        todoListCache.bumpVersion(userId);
+        todoCounterService.onChanged(before, before.stream()
+                .map(todo -> applyChanges(todo, updateTodo))
+                .collect(Collectors.toList()));
+        todoEventService.publish(userId, updateTodo.getChangeSeq(), TodoChangeEvent.SAVED,
+                before.stream().map(Todo::getId).collect(Collectors.toList()));
         log.info("批量标记待办事项未完成: ids={}, userId={}", ids, userId);
     }
 
@@ -261,7 +601,18 @@ public class TodoService {
         updateTodo.setDeletedAt(LocalDateTime.now());
         updateTodo.setDeleted(1);
 
+        updateTodo.setChangeSeq(nextChangeSeq(userId));
+        updateTodo.setContentSeq(updateTodo.getChangeSeq());
+
+        List<Todo> before = todoMapper.selectList(queryWrapper);
         todoMapper.update(updateTodo, queryWrapper);
+        todoListCache.bumpVersion(userId);
+        todoCounterService.onChanged(before, before.stream()
+                .map(todo -> applyChanges(todo, updateTodo))
+                .collect(Collectors.toList()));
+        todoSearchIndex.onRemoved(userId, before.stream().map(Todo::getId).collect(Collectors.toList()));
+        todoEventService.publish(userId, updateTodo.getChangeSeq(), TodoChangeEvent.REMOVED,
+                before.stream().map(Todo::getId).collect(Collectors.toList()));
         log.info("批量软删除待办事项: ids={}, userId={}", ids, userId);
     }
 
@@ -271,11 +622,339 @@ public class TodoService {
      * @param userId 用户ID
      */
     public void emptyTrash(Long userId) {
+        Long changeSeq = nextChangeSeq(userId);
+        int purged = todoMapper.purgeTrash(userId, changeSeq);
+        todoListCache.bumpVersion(userId);
+        todoCounterService.onTrashEmptied(userId, purged);
+        if (purged > 0) {
+            todoEventService.publish(userId, changeSeq, TodoChangeEvent.PURGED, null);
+        }
+        log.info("清空回收站: userId={}", userId);
+    }
+
+    /**
+     * 拖动排序：把待办事项移到 after 和 before 之间，只改写这一行
+     *
+     * <p>新的排序序号取两侧排序序号的中点。只给出一侧时，另一侧取该项在列表中的相邻项；
+     * 两侧都不给出时移到末尾。间隔用尽时先就地重排再计算（很少发生），
+     * 间隔偏小时提交后在后台重排。</p>
+     *
+     * @param id 待办事项ID
+     * @param userId 用户ID
+     * @param afterId 移动后排在它前面的待办事项ID，移到开头时为null
+     * @param beforeId 移动后排在它后面的待办事项ID，移到末尾时为null
+     * @return 移动后的待办事项，不存在时返回null
+     * @throws IllegalArgumentException 相邻项不存在或顺序不正确（不回滚调用方的事务）
+     */
+    @Transactional(noRollbackFor = IllegalArgumentException.class)
+    public Todo moveTodo(Long id, Long userId, Long afterId, Long beforeId) {
+        if (id.equals(afterId) || id.equals(beforeId)) {
+            throw new IllegalArgumentException("不能相对自身移动");
+        }
+
+        Todo todo = prepareMutation(id, userId, 0);
+        if (todo == null) {
+            return null;
+        }
+
+        Long changeSeq = todo.getChangeSeq();
+        long[] bounds = rankBounds(id, userId, afterId, beforeId, changeSeq);
+        if (bounds[0] > bounds[1]) {
+            throw new IllegalArgumentException("after 必须排在 before 之前");
+        }
+        if (bounds[1] - bounds[0] < 2) {
+            // 间隔用尽（或旧数据中排序序号相同）：就地重排后重新计算
+            List<Long> rebalanced = rebalance(userId, changeSeq);
+            todoEventService.publish(userId, changeSeq, TodoChangeEvent.SAVED, rebalanced);
+            bounds = rankBounds(id, userId, afterId, beforeId, changeSeq);
+            if (bounds[1] - bounds[0] < 2) {
+                throw new IllegalArgumentException("after 必须排在 before 之前");
+            }
+        } else if (bounds[1] - bounds[0] < MIN_RANK_GAP) {
+            todoRankRebalancer.schedule(userId);
+        }
+
+        long sortOrder = bounds[0] + (bounds[1] - bounds[0]) / 2;
+        UpdateWrapper<Todo> updateWrapper = activeRow(id, userId)
+                .set("sort_order", sortOrder)
+                .set("change_seq", changeSeq)
+                .set("content_seq", changeSeq);
+        if (todoMapper.update(null, updateWrapper) != 1) {
+            return null;
+        }
+
+        todoListCache.bumpVersion(userId);
+        todoEventService.publish(userId, changeSeq, TodoChangeEvent.SAVED, Collections.singletonList(id));
+        log.info("移动待办事项: id={}, after={}, before={}, sortOrder={}", id, afterId, beforeId, sortOrder);
+
+        todo.setSortOrder(sortOrder);
+        todo.setUpdatedAt(LocalDateTime.now());
+        return todo;
+    }
+
+    /**
+     * 重排用户的排序序号，恢复均匀的间隔（顺序不变）
+     *
+     * @param userId 用户ID
+     */
+    public void rebalanceRanks(Long userId) {
+        Long changeSeq = nextChangeSeq(userId);
+        List<Long> ids = rebalance(userId, changeSeq);
+        todoListCache.bumpVersion(userId);
+        todoEventService.publish(userId, changeSeq, TodoChangeEvent.SAVED, ids);
+        log.info("重排待办事项排序序号: userId={}, count={}", userId, ids.size());
+    }
+
+    /**
+     * 读取某个变更位置之后变化的待办事项（增量同步），按 (change_seq, id) 排序
+     *
+     * <p>结果包含新建、修改、完成、移入回收站、恢复的行，以及已永久删除的行（deleted=1），
+     * 后者由调用方作为删除记录返回给客户端。</p>
+     *
+     * @param userId 用户ID
+     * @param cursor 上次同步到的位置，为null时从头开始（全量）
+     * @param limit 最大行数
+     * @return 变化的行
+     */
+    @Transactional(readOnly = true)
+    public List<Todo> getChangesSince(Long userId, PageCursor cursor, int limit) {
+        long changeSeq = cursor == null ? 0L : cursor.getNumber();
+        long lastId = cursor == null ? 0L : cursor.getId();
+        return todoMapper.selectChangedSince(userId, changeSeq, lastId, limit);
+    }
+
+    /**
+     * 为本次修改分配用户的下一个变更序号（须在修改待办事项之前调用）
+     *
+     * <p>递增会锁住用户行直到事务提交，同一用户的并发修改因此串行化，
+     * 序号顺序与提交顺序一致，客户端按序号续读不会漏掉晚提交的修改。</p>
+     *
+     * @param userId 用户ID
+     * @return 变更序号
+     */
+    private Long nextChangeSeq(Long userId) {
+        User user = new User();
+        user.setId(userId);
+        if (userMapper.incrementChangeSeq(user) != 1) {
+            throw new IllegalStateException("用户不存在: " + userId);
+        }
+        return user.getChangeSeq();
+    }
+
+    /**
+     * 为单行修改分配变更序号，并读取修改前的行
+     *
+     * <p>递增变更序号会锁住用户行，同一用户的修改串行执行，读到的行在本事务提交前不会被其他请求修改。
+     * 修改前的行用于响应、检索索引和计数。</p>
+     *
+     * @param id 待办事项ID
+     * @param userId 用户ID
+     * @param isDeleted 要求的回收站状态：0-未删除，1-在回收站中
+     * @return 修改前的行，其 changeSeq 和 contentSeq 为本次分配的变更序号；不存在、不属于该用户或状态不符时返回null
+     */
+    private Todo prepareMutation(Long id, Long userId, int isDeleted) {
+        Long changeSeq = nextChangeSeq(userId);
+        Todo todo = todoMapper.selectOwned(id, userId, isDeleted);
+        if (todo != null) {
+            todo.setChangeSeq(changeSeq);
+            todo.setContentSeq(changeSeq);
+        }
+        return todo;
+    }
+
+    /**
+     * 单行条件更新的参数（变更序号取自 {@link #prepareMutation}）
+     */
+    private static TodoMapper.Mutation newMutation(Todo before) {
+        TodoMapper.Mutation mutation = new TodoMapper.Mutation();
+        mutation.setId(before.getId());
+        mutation.setUserId(before.getUserId());
+        mutation.setChangeSeq(before.getChangeSeq());
+        mutation.setTime(LocalDateTime.now());
+        return mutation;
+    }
+
+    /**
+     * 完成状态变化后更新缓存、计数并推送
+     */
+    private void afterStatusChanged(TodoMapper.Mutation mutation, Todo before, Todo after) {
+        todoListCache.bumpVersion(mutation.getUserId());
+        todoCounterService.onChanged(before, after);
+        todoEventService.publish(mutation.getUserId(), mutation.getChangeSeq(), TodoChangeEvent.SAVED,
+                Collections.singletonList(mutation.getId()));
+    }
+
+    /**
+     * 计数所需的行状态（修改后的行，由修改前的行和条件UPDATE写入的值得出）
+     */
+    private static Todo stateOf(Long id, Long userId, Integer status, LocalDateTime dueDate, int isDeleted) {
+        Todo todo = new Todo();
+        todo.setId(id);
+        todo.setUserId(userId);
+        todo.setStatus(status);
+        todo.setDueDate(dueDate);
+        todo.setIsDeleted(isDeleted);
+        return todo;
+    }
+
+    /**
+     * 条件更新：只匹配属于该用户且未删除的行，影响行数为0即不存在
+     */
+    private static UpdateWrapper<Todo> activeRow(Long id, Long userId) {
+        UpdateWrapper<Todo> updateWrapper = new UpdateWrapper<>();
+        updateWrapper.eq("id", id)
+                    .eq("user_id", userId)
+                    .eq("deleted", 0)
+                    .eq("is_deleted", 0);
+        return updateWrapper;
+    }
+
+    /**
+     * 新建项的排序序号，大于该用户所有已有的排序序号
+     */
+    private static long appendRank(Long changeSeq) {
+        return changeSeq << RANK_SHIFT;
+    }
+
+    /**
+     * 计算移动后的排序序号上下界（不含）
+     *
+     * @return [下界, 上界]
+     */
+    private long[] rankBounds(Long id, Long userId, Long afterId, Long beforeId, Long changeSeq) {
+        if (afterId == null && beforeId == null) {
+            long end = appendRank(changeSeq);
+            return new long[] {end - RANK_GAP, end + RANK_GAP};
+        }
+
+        Long lower = afterId != null ? rankOf(afterId, userId) : null;
+        Long upper = beforeId != null ? rankOf(beforeId, userId) : null;
+        if (upper == null) {
+            upper = neighbourRank(id, userId, lower, true);
+            if (upper == null) {
+                upper = appendRank(changeSeq);
+            }
+        }
+        if (lower == null) {
+            lower = neighbourRank(id, userId, upper, false);
+            if (lower == null) {
+                lower = upper - 2 * RANK_GAP;
+            }
+        }
+        return new long[] {lower, upper};
+    }
+
+    private long rankOf(Long id, Long userId) {
+        Todo todo = getTodoByIdAndUserId(id, userId);
+        if (todo == null) {
+            throw new IllegalArgumentException("相邻的待办事项不存在: " + id);
+        }
+        return todo.getSortOrder() != null ? todo.getSortOrder() : 0L;
+    }
+
+    /**
+     * 读取紧邻某个排序序号的下一项（next）或上一项的排序序号（走 idx_user_active_order 索引）
+     */
+    private Long neighbourRank(Long id, Long userId, long rank, boolean next) {
+        QueryWrapper<Todo> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select(next ? "MIN(sort_order) AS sort_order" : "MAX(sort_order) AS sort_order")
+                   .eq("user_id", userId)
+                   .eq("deleted", 0)
+                   .eq("is_deleted", 0)
+                   .ne("id", id)
+                   .gt(next, "sort_order", rank)
+                   .lt(!next, "sort_order", rank);
+
+        Todo neighbour = todoMapper.selectOne(queryWrapper);
+        return neighbour != null ? neighbour.getSortOrder() : null;
+    }
+
+    /**
+     * 按当前顺序把活动列表的排序序号重新均匀分布到 (0, appendRank(changeSeq)) 区间
+     *
+     * <p>回收站中的项不参与排序比较，保留原排序序号；恢复后按原序号排入列表。
+     * 只推进 change_seq，内容版本（content_seq）不变。</p>
+     *
+     * @return 改写的待办事项ID
+     */
+    private List<Long> rebalance(Long userId, Long changeSeq) {
+        QueryWrapper<Todo> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("id")
+                   .eq("user_id", userId)
+                   .eq("deleted", 0)
+                   .eq("is_deleted", 0)
+                   .orderByAsc("sort_order")
+                   .orderByDesc("created_at")
+                   .orderByDesc("id");
+
+        List<Todo> todos = todoMapper.selectList(queryWrapper);
+        long step = Math.max(1, appendRank(changeSeq) / (todos.size() + 1));
+        for (int i = 0; i < todos.size(); i++) {
+            todos.get(i).setSortOrder(step * (i + 1));
+        }
+        for (int from = 0; from < todos.size(); from += REBALANCE_CHUNK_SIZE) {
+            todoMapper.updateSortOrders(userId, changeSeq,
+                    todos.subList(from, Math.min(from + REBALANCE_CHUNK_SIZE, todos.size())));
+        }
+        return todos.stream().map(Todo::getId).collect(Collectors.toList());
+    }
+
+    /**
+     * 按截止时间范围查询（走 idx_user_due_status 索引范围扫描）
+     *
+     * @param userId 用户ID
+     * @param from 起始时间（含），为null时不限
+     * @param to 结束时间（不含）
+     * @param openOnly 是否只查待办和进行中
+     * @return 按截止时间排序的待办事项
+     */
+    private List<Todo> selectByDueDate(Long userId, LocalDateTime from, LocalDateTime to, boolean openOnly) {
         QueryWrapper<Todo> queryWrapper = new QueryWrapper<>();
         queryWrapper.eq("user_id", userId)
-                   .eq("deleted", 1);
+                   .ge(from != null, "due_date", from)
+                   .lt("due_date", to)
+                   .eq("is_deleted", 0)
+                   .in(openOnly, "status", Todo.Status.TODO, Todo.Status.IN_PROGRESS)
+                   .orderByAsc("due_date")
+                   .orderByAsc("id")
+                   .last("LIMIT " + MAX_DUE_RESULTS);
 
-        todoMapper.delete(queryWrapper);
-        log.info("清空回收站: userId={}", userId);
+        return todoMapper.selectList(queryWrapper);
+    }
+
+    /**
+     * 分页查询；已知总数时跳过COUNT查询
+     *
+     * @param page 分页参数
+     * @param queryWrapper 查询条件
+     * @param total 已知总数（来自计数服务），为null时照常执行COUNT
+     * @return 分页结果
+     */
+    private IPage<Todo> selectPageWithCount(Page<Todo> page, QueryWrapper<Todo> queryWrapper, Long total) {
+        if (total == null) {
+            return todoMapper.selectPage(page, queryWrapper);
+        }
+
+        page.setSearchCount(false);
+        IPage<Todo> result = todoMapper.selectPage(page, queryWrapper);
+        result.setTotal(total);
+        return result;
+    }
+
+    /**
+     * 计算修改后的行（批量修改时用于更新计数）
+     *
+     * @param before 修改前的行
+     * @param changes 本次修改的字段
+     * @return 修改后的行，修改前的行不存在时返回null
+     */
+    private Todo applyChanges(Todo before, Todo changes) {
+        if (before == null) {
+            return null;
+        }
+
+        Todo after = todoConverter.copy(before);
+        todoConverter.merge(changes, after);
+        return after;
     }
-}
\ No newline at end of file
+}
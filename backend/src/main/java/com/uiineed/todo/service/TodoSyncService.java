@@ -0,0 +1,198 @@
+package com.uiineed.todo.service;
+
+import com.uiineed.todo.converter.TodoConverter;
+import com.uiineed.todo.entity.Todo;
+import com.uiineed.todo.mapper.TodoMapper;
+import com.uiineed.todo.mapper.UserMapper;
+import com.uiineed.todo.vo.TodoSyncOperation;
+import com.uiineed.todo.vo.TodoSyncResponse;
+import com.uiineed.todo.vo.TodoSyncResponse.OperationResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 离线同步服务：在一个事务中按顺序执行客户端的操作日志
+ *
+ * <p>每个操作通过 TodoService 执行，缓存、计数、检索索引和实时推送照常更新。
+ * 冲突以行版本（content_seq）判断：客户端在操作中带上修改前看到的版本，
+ * 服务端的行在此之后被其他设备修改过时，该操作不执行并返回 conflict，
+ * 客户端根据响应中的变化决定如何合并。同一日志对同一行的多个操作都与同步前的版本比较。</p>
+ *
+ * <p>事务开始时先锁定用户行：其他设备的修改同样要先锁定用户行，
+ * 因此读取行版本到写入之间不会有其他修改插入，版本比较不会漏掉并发的修改。</p>
+ *
+ * <p>单个操作冲突、不存在或参数不合法只记录在结果中；执行中出现其他异常时整个日志回滚。</p>
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+public class TodoSyncService {
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private TodoMapper todoMapper;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private TodoConverter todoConverter;
+
+    @Autowired
+    private Validator validator;
+
+    /**
+     * 单次同步的最大操作数
+     */
+    @Value("${todo-sync.max-operations:500}")
+    private Integer maxOperations;
+
+    /**
+     * 执行操作日志
+     *
+     * @param userId 用户ID
+     * @param operations 按客户端执行顺序排列的操作
+     * @return 每个操作的执行结果
+     * @throws IllegalArgumentException 操作数超过上限
+     */
+    @Transactional
+    public List<OperationResult> apply(Long userId, List<TodoSyncOperation> operations) {
+        if (operations.size() > maxOperations) {
+            throw new IllegalArgumentException("单次同步最多" + maxOperations + "个操作");
+        }
+
+        long start = System.nanoTime();
+        // 须在读取任何行版本之前执行
+        if (userMapper.lockChangeSeq(userId) == null) {
+            throw new IllegalStateException("用户不存在: " + userId);
+        }
+        // 客户端临时ID -> 新建的待办事项ID
+        Map<String, Long> tempIds = new HashMap<>();
+        // 待办事项ID -> 同步前的行版本
+        Map<Long, Long> versions = new HashMap<>();
+
+        List<OperationResult> results = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            results.add(applyOne(userId, i, operations.get(i), tempIds, versions));
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        long applied = results.stream().filter(result -> TodoSyncResponse.APPLIED.equals(result.getStatus())).count();
+        log.info("离线同步完成: userId={}, operations={}, applied={}, 耗时={}ms",
+                userId, operations.size(), applied, elapsedMillis);
+        return results;
+    }
+
+    private OperationResult applyOne(Long userId, int index, TodoSyncOperation operation,
+                                     Map<String, Long> tempIds, Map<Long, Long> versions) {
+        String error = validate(operation);
+        if (error != null) {
+            Long id = operation == null ? null : operation.getId();
+            return new OperationResult(index, TodoSyncResponse.INVALID, id, error);
+        }
+
+        if (TodoSyncOperation.CREATE.equals(operation.getType())) {
+            if (operation.getTitle() == null) {
+                return new OperationResult(index, TodoSyncResponse.INVALID, null, "标题不能为空");
+            }
+            if (operation.getTempId() != null && tempIds.containsKey(operation.getTempId())) {
+                return new OperationResult(index, TodoSyncResponse.INVALID, null,
+                        "临时ID重复: " + operation.getTempId());
+            }
+            Todo created = todoService.createTodo(todoConverter.toEntity(operation, userId));
+            if (operation.getTempId() != null) {
+                tempIds.put(operation.getTempId(), created.getId());
+            }
+            return new OperationResult(index, TodoSyncResponse.APPLIED, created.getId(), null);
+        }
+
+        Long id = operation.getId() != null ? operation.getId() : tempIds.get(operation.getTempId());
+        if (id == null) {
+            return new OperationResult(index, TodoSyncResponse.NOT_FOUND, null, "缺少待办事项ID或临时ID无效");
+        }
+
+        Todo current = todoMapper.selectById(id);
+        if (current == null || !userId.equals(current.getUserId())) {
+            return new OperationResult(index, TodoSyncResponse.NOT_FOUND, id, "待办事项不存在");
+        }
+
+        Long version = versions.computeIfAbsent(id, key -> current.getContentSeq());
+        if (operation.getBaseVersion() != null && version != null && version > operation.getBaseVersion()) {
+            return new OperationResult(index, TodoSyncResponse.CONFLICT, id, "待办事项已在其他设备上修改");
+        }
+
+        boolean removed = current.isRemoved();
+        boolean activeOnly = !TodoSyncOperation.DELETE.equals(operation.getType())
+                && !TodoSyncOperation.RESTORE.equals(operation.getType());
+        if (removed && activeOnly) {
+            return new OperationResult(index, TodoSyncResponse.NOT_FOUND, id, "待办事项已在回收站中");
+        }
+
+        boolean applied;
+        switch (operation.getType()) {
+            case TodoSyncOperation.UPDATE:
+                applied = todoService.updateTodo(todoConverter.toEntity(operation, id, userId)) != null;
+                break;
+            case TodoSyncOperation.REORDER:
+                Long after = operation.getAfter() != null ? operation.getAfter()
+                        : tempIds.get(operation.getAfterTempId());
+                Long before = operation.getBefore() != null ? operation.getBefore()
+                        : tempIds.get(operation.getBeforeTempId());
+                try {
+                    applied = todoService.moveTodo(id, userId, after, before) != null;
+                } catch (IllegalArgumentException e) {
+                    return new OperationResult(index, TodoSyncResponse.INVALID, id, e.getMessage());
+                }
+                break;
+            case TodoSyncOperation.COMPLETE:
+                applied = todoService.markAsCompleted(id, userId);
+                break;
+            case TodoSyncOperation.UNCOMPLETE:
+                applied = todoService.markAsUncompleted(id, userId);
+                break;
+            case TodoSyncOperation.DELETE:
+                // 已在回收站中视为成功（重放同一日志不报错）
+                applied = removed || todoService.softDeleteTodo(id, userId);
+                break;
+            case TodoSyncOperation.RESTORE:
+                applied = !removed || todoService.restoreTodo(id, userId) != null;
+                break;
+            default:
+                return new OperationResult(index, TodoSyncResponse.INVALID, id, "不支持的操作类型");
+        }
+        if (!applied) {
+            return new OperationResult(index, TodoSyncResponse.NOT_FOUND, id, "待办事项不存在");
+        }
+        return new OperationResult(index, TodoSyncResponse.APPLIED, id, null);
+    }
+
+    private String validate(TodoSyncOperation operation) {
+        if (operation == null) {
+            return "操作不能为空";
+        }
+        Set<ConstraintViolation<TodoSyncOperation>> violations = validator.validate(operation);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+}
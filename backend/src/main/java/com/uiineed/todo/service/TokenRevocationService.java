@@ -0,0 +1,199 @@
+package com.uiineed.todo.service;
+
+import com.uiineed.todo.config.JwtConfig;
+import com.uiineed.todo.security.JwtPrincipal;
+import com.uiineed.todo.util.BloomFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Token吊销服务
+ *
+ * <p>吊销记录以 jti 为键写入Redis，TTL等于Token剩余有效期；同时通过发布/订阅
+ * 同步到各节点的本地布隆过滤器。请求路径上先查本地布隆过滤器，
+ * 只有在可能命中时才回查Redis，绝大多数请求不产生额外的网络往返。</p>
+ *
+ * <p>订阅断线期间的通知会丢失，因此重新订阅成功后立即从Redis重建一次。</p>
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+public class TokenRevocationService implements MessageListener, SubscriptionListener {
+
+    /**
+     * Redis中吊销记录的键前缀
+     */
+    private static final String KEY_PREFIX = "auth:revoked:";
+
+    /**
+     * 吊销通知频道
+     */
+    private static final String CHANNEL = "auth:revoked";
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Autowired
+    private JwtConfig jwtConfig;
+
+    /**
+     * 当前生效的布隆过滤器
+     */
+    private volatile BloomFilter current;
+
+    /**
+     * 重建过程中的新布隆过滤器，重建期间的吊销同时写入新旧两个过滤器
+     */
+    private volatile BloomFilter rebuilding;
+
+    /**
+     * 保护 current 与 rebuilding 的切换：写入和切换互斥，切换前后的吊销都不会只写进被丢弃的过滤器
+     */
+    private final Object filterLock = new Object();
+
+    /**
+     * 串行化重建（定时任务与重新订阅可能同时触发）
+     */
+    private final Object rebuildLock = new Object();
+
+    /**
+     * 是否已完成首次订阅，之后的订阅确认视为断线重连
+     */
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    @PostConstruct
+    public void init() {
+        this.current = newFilter();
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        rebuild();
+    }
+
+    /**
+     * 吊销Token
+     *
+     * @param principal 已验证的Token主体
+     */
+    public void revoke(JwtPrincipal principal) {
+        String tokenId = principal.getTokenId();
+        long remainingMillis = principal.getRemainingMillis();
+        if (tokenId == null || remainingMillis <= 0) {
+            return;
+        }
+
+        stringRedisTemplate.opsForValue().set(KEY_PREFIX + tokenId, "1", remainingMillis, TimeUnit.MILLISECONDS);
+        addLocal(tokenId);
+        stringRedisTemplate.convertAndSend(CHANNEL, tokenId);
+        log.info("Token已吊销: userId={}, jti={}", principal.getUserId(), tokenId);
+    }
+
+    /**
+     * 判断Token是否已被吊销
+     *
+     * @param principal 已验证的Token主体
+     * @return 是否已吊销
+     */
+    public boolean isRevoked(JwtPrincipal principal) {
+        String tokenId = principal.getTokenId();
+        if (tokenId == null || !current.mightContain(tokenId)) {
+            return false;
+        }
+
+        try {
+            return Boolean.TRUE.equals(stringRedisTemplate.hasKey(KEY_PREFIX + tokenId));
+        } catch (Exception e) {
+            // 布隆过滤器已判定可能吊销，Redis不可用时按已吊销处理
+            log.warn("查询Token吊销状态失败，按已吊销处理: jti={}", tokenId, e);
+            return true;
+        }
+    }
+
+    /**
+     * 接收其他节点的吊销通知
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        addLocal(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 订阅确认：首次订阅之后再次收到时说明监听连接断开过，期间的吊销通知可能丢失，从Redis重建
+     */
+    @Override
+    public void onChannelSubscribed(byte[] channel, long count) {
+        if (subscribed.getAndSet(true)) {
+            log.warn("吊销通知订阅已恢复，重建布隆过滤器");
+            CompletableFuture.runAsync(this::rebuild);
+        }
+    }
+
+    /**
+     * 定期从Redis重建布隆过滤器，清除已自然过期的吊销记录
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation-rebuild-interval:3600000}",
+               initialDelayString = "${jwt.revocation-rebuild-interval:3600000}")
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            BloomFilter fresh = newFilter();
+            synchronized (filterLock) {
+                this.rebuilding = fresh;
+            }
+            int count = 0;
+
+            ScanOptions options = ScanOptions.scanOptions().match(KEY_PREFIX + "*").count(1000).build();
+            try (Cursor<String> cursor = stringRedisTemplate.scan(options)) {
+                while (cursor.hasNext()) {
+                    fresh.put(cursor.next().substring(KEY_PREFIX.length()));
+                    count++;
+                }
+                synchronized (filterLock) {
+                    this.current = fresh;
+                    this.rebuilding = null;
+                }
+                log.info("Token吊销布隆过滤器重建完成，记录数：{}", count);
+            } catch (Exception e) {
+                log.error("Token吊销布隆过滤器重建失败，继续使用旧过滤器", e);
+            } finally {
+                synchronized (filterLock) {
+                    this.rebuilding = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * 写入本地布隆过滤器（与重建时的切换互斥）
+     */
+    private void addLocal(String tokenId) {
+        synchronized (filterLock) {
+            current.put(tokenId);
+            if (rebuilding != null) {
+                rebuilding.put(tokenId);
+            }
+        }
+    }
+
+    private BloomFilter newFilter() {
+        return new BloomFilter(jwtConfig.getRevocationExpectedInsertions(), jwtConfig.getRevocationFalsePositiveRate());
+    }
+}
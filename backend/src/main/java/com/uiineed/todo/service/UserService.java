@@ -1,15 +1,25 @@
 package com.uiineed.todo.service;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
+import com.uiineed.todo.cache.TwoLevelCache;
+import com.uiineed.todo.cache.TwoLevelCacheManager;
+import com.uiineed.todo.config.LocalCacheConfig;
 import com.uiineed.todo.entity.User;
 import com.uiineed.todo.mapper.UserMapper;
 import com.uiineed.todo.service.WeChatService.WeChatUserInfo;
+import com.uiineed.todo.util.TransactionUtils;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.annotation.PostConstruct;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Objects;
 
 /**
  * 用户服务类
@@ -25,6 +35,28 @@ public class UserService {
     @Autowired
     private UserMapper userMapper;
 
+    @Autowired
+    private LoginStatsRecorder loginStatsRecorder;
+
+    @Autowired
+    private TwoLevelCacheManager twoLevelCacheManager;
+
+    @Autowired
+    private LocalCacheConfig localCacheConfig;
+
+    /**
+     * 用户缓存，键为 id:{用户ID} 或 openid:{微信OpenID}
+     */
+    private TwoLevelCache<User> userCache;
+
+    @PostConstruct
+    public void init() {
+        this.userCache = twoLevelCacheManager.create("users", User.class,
+                localCacheConfig.getUserMaxSize(), Duration.ofMillis(localCacheConfig.getUserTtl()));
+        // 登录次数和最后登录时间写回后失效缓存，避免一直读到旧的登录统计
+        loginStatsRecorder.onFlushed(this::evictUser);
+    }
+
     /**
      * 根据微信OpenID查找或创建用户
      *
@@ -36,9 +68,11 @@ public class UserService {
         User existUser = findByWeChatOpenId(weChatUserInfo.getOpenid());
 
         if (existUser != null) {
-            // 更新用户信息
-            updateUserFromWechat(existUser, weChatUserInfo);
-            return existUser;
+            // 缓存中取到的是共享实例，复制后再更新用户信息
+            User user = new User();
+            BeanUtils.copyProperties(existUser, user);
+            updateUserFromWechat(user, weChatUserInfo);
+            return user;
         } else {
             // 创建新用户
             return createUserFromWechat(weChatUserInfo);
@@ -52,9 +86,11 @@ public class UserService {
      * @return 用户信息
      */
     public User findByWeChatOpenId(String openId) {
-        QueryWrapper<User> queryWrapper = new QueryWrapper<>();
-        queryWrapper.eq("wechat_openid", openId);
-        return userMapper.selectOne(queryWrapper);
+        return userCache.get(openIdKey(openId), () -> {
+            QueryWrapper<User> queryWrapper = new QueryWrapper<>();
+            queryWrapper.eq("wechat_openid", openId);
+            return userMapper.selectOne(queryWrapper);
+        });
     }
 
     /**
@@ -64,25 +100,41 @@ public class UserService {
      * @return 用户信息
      */
     public User findById(Long id) {
-        return userMapper.selectById(id);
+        return userCache.get(idKey(id), () -> userMapper.selectById(id));
     }
 
     /**
-     * 更新用户最后登录时间
+     * 更新用户状态（启用/禁用）
+     *
+     * <p>提交后失效该用户按ID和OpenID缓存的信息，失效经Redis广播到所有节点，
+     * 认证过滤器在广播送达后即按新状态判断，不必等待缓存过期。</p>
      *
      * @param userId 用户ID
+     * @param status 状态
+     * @return 是否更新成功，用户不存在时返回false
      */
-    public void updateLastLoginTime(Long userId) {
-        User updateUser = new User();
-        updateUser.setId(userId);
-        updateUser.setLastLoginTime(LocalDateTime.now());
-        // 增加登录次数
-        User currentUser = findById(userId);
-        if (currentUser != null) {
-            updateUser.setLoginCount((currentUser.getLoginCount() == null ? 0 : currentUser.getLoginCount()) + 1);
+    public boolean updateStatus(Long userId, Integer status) {
+        User user = userMapper.selectById(userId);
+        if (user == null) {
+            return false;
         }
 
-        userMapper.updateById(updateUser);
+        UpdateWrapper<User> updateWrapper = new UpdateWrapper<>();
+        updateWrapper.set("status", status).eq("id", userId);
+        boolean updated = userMapper.update(null, updateWrapper) > 0;
+
+        evictUser(user);
+        log.info("更新用户状态: userId={}, status={}", userId, status);
+        return updated;
+    }
+
+    /**
+     * 更新用户最后登录时间（异步合并写入，见 {@link LoginStatsRecorder}）
+     *
+     * @param user 用户
+     */
+    public void updateLastLoginTime(User user) {
+        loginStatsRecorder.record(user.getId(), user.getWechatOpenId());
     }
 
     /**
@@ -113,34 +165,96 @@ public class UserService {
     }
 
     /**
-     * 根据微信用户信息更新现有用户
+     * 根据微信用户信息更新现有用户（只写入发生变化的字段，没有变化时不更新）
      *
      * @param existUser 现有用户
      * @param weChatUserInfo 微信用户信息
      */
     private void updateUserFromWechat(User existUser, WeChatUserInfo weChatUserInfo) {
-        // 只更新可能变化的字段
-        existUser.setWechatUnionId(weChatUserInfo.getUnionid());
-        existUser.setNickname(weChatUserInfo.getNickname());
-        existUser.setAvatarUrl(weChatUserInfo.getHeadimgurl());
-        existUser.setGender(weChatUserInfo.getSex());
-        existUser.setCountry(weChatUserInfo.getCountry());
-        existUser.setProvince(weChatUserInfo.getProvince());
-        existUser.setCity(weChatUserInfo.getCity());
-        existUser.setLanguage(weChatUserInfo.getLanguage());
-
-        userMapper.updateById(existUser);
+        UpdateWrapper<User> updateWrapper = new UpdateWrapper<>();
+        boolean changed = false;
+
+        if (!Objects.equals(existUser.getWechatUnionId(), weChatUserInfo.getUnionid())) {
+            existUser.setWechatUnionId(weChatUserInfo.getUnionid());
+            updateWrapper.set("wechat_unionid", weChatUserInfo.getUnionid());
+            changed = true;
+        }
+        if (!Objects.equals(existUser.getNickname(), weChatUserInfo.getNickname())) {
+            existUser.setNickname(weChatUserInfo.getNickname());
+            updateWrapper.set("nickname", weChatUserInfo.getNickname());
+            changed = true;
+        }
+        if (!Objects.equals(existUser.getAvatarUrl(), weChatUserInfo.getHeadimgurl())) {
+            existUser.setAvatarUrl(weChatUserInfo.getHeadimgurl());
+            updateWrapper.set("avatar_url", weChatUserInfo.getHeadimgurl());
+            changed = true;
+        }
+        if (!Objects.equals(existUser.getGender(), weChatUserInfo.getSex())) {
+            existUser.setGender(weChatUserInfo.getSex());
+            updateWrapper.set("gender", weChatUserInfo.getSex());
+            changed = true;
+        }
+        if (!Objects.equals(existUser.getCountry(), weChatUserInfo.getCountry())) {
+            existUser.setCountry(weChatUserInfo.getCountry());
+            updateWrapper.set("country", weChatUserInfo.getCountry());
+            changed = true;
+        }
+        if (!Objects.equals(existUser.getProvince(), weChatUserInfo.getProvince())) {
+            existUser.setProvince(weChatUserInfo.getProvince());
+            updateWrapper.set("province", weChatUserInfo.getProvince());
+            changed = true;
+        }
+        if (!Objects.equals(existUser.getCity(), weChatUserInfo.getCity())) {
+            existUser.setCity(weChatUserInfo.getCity());
+            updateWrapper.set("city", weChatUserInfo.getCity());
+            changed = true;
+        }
+        if (!Objects.equals(existUser.getLanguage(), weChatUserInfo.getLanguage())) {
+            existUser.setLanguage(weChatUserInfo.getLanguage());
+            updateWrapper.set("language", weChatUserInfo.getLanguage());
+            changed = true;
+        }
+
+        if (!changed) {
+            return;
+        }
+
+        updateWrapper.eq("id", existUser.getId());
+        userMapper.update(null, updateWrapper);
+        evictUser(existUser);
         log.info("更新用户信息: openId={}, nickname={}", weChatUserInfo.getOpenid(), weChatUserInfo.getNickname());
     }
 
     /**
-     * 检查用户是否有效
+     * 检查用户是否有效（每个认证请求都会调用，经两级缓存读取，命中时不占用数据库连接）
      *
      * @param userId 用户ID
      * @return 是否有效
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public boolean isUserValid(Long userId) {
         User user = findById(userId);
         return user != null && User.Status.ACTIVE.equals(user.getStatus());
     }
-}
\ No newline at end of file
+
+    /**
+     * 失效用户缓存；在事务中时等提交后再失效，避免其他请求在提交前重新加载到旧数据
+     */
+    private void evictUser(User user) {
+        Runnable evict = () -> {
+            userCache.evict(idKey(user.getId()));
+            if (user.getWechatOpenId() != null) {
+                userCache.evict(openIdKey(user.getWechatOpenId()));
+            }
+        };
+        TransactionUtils.afterCommit(evict);
+    }
+
+    private static String idKey(Long id) {
+        return "id:" + id;
+    }
+
+    private static String openIdKey(String openId) {
+        return "openid:" + openId;
+    }
+}
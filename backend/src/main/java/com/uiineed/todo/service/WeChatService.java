@@ -3,23 +3,36 @@ package com.uiineed.todo.service;
 import com.alibaba.fastjson2.JSON;
 import com.alibaba.fastjson2.JSONObject;
 import com.uiineed.todo.config.WeChatConfig;
+import com.uiineed.todo.config.WeChatHttpConfig;
 import com.uiineed.todo.entity.User;
 import com.uiineed.todo.common.ResultCode;
+import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.util.EntityUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.io.IOException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * 微信服务类
@@ -31,9 +44,28 @@ import java.util.Map;
 @Service
 public class WeChatService {
 
+    private static final String PROFILE_KEY_PREFIX = "wechat:profile:";
+
     @Autowired
     private WeChatConfig weChatConfig;
 
+    @Autowired
+    private WeChatHttpConfig weChatHttpConfig;
+
+    @Autowired
+    private CloseableHttpClient weChatHttpClient;
+
+    @Autowired
+    private QrLoginStateService qrLoginStateService;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 登录回调线程池（有界队列，满时直接拒绝）
+     */
+    private ThreadPoolExecutor callbackExecutor;
+
     /**
      * 微信用户信息响应对象
      */
@@ -63,6 +95,60 @@ public class WeChatService {
         private String unionid;
     }
 
+    @PostConstruct
+    public void init() {
+        int threads = weChatHttpConfig.getCallbackThreads();
+        AtomicInteger index = new AtomicInteger();
+        this.callbackExecutor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(weChatHttpConfig.getCallbackQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "wechat-callback-" + index.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        callbackExecutor.shutdown();
+    }
+
+    /**
+     * 在登录回调线程池中执行任务
+     *
+     * <p>线程池和队列都满时返回立即失败的结果；任务超过回调超时时间未完成时以
+     * {@link java.util.concurrent.TimeoutException} 结束，同时取消任务：尚在队列中的任务不再执行，
+     * 正在执行的任务被中断（阻塞在socket读取上的调用要等读取超时才会返回，之后的结果被丢弃）。</p>
+     *
+     * @param task 任务
+     * @return 异步结果
+     */
+    public <T> CompletableFuture<T> executeCallback(Supplier<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> running;
+        try {
+            running = callbackExecutor.submit(() -> {
+                try {
+                    result.complete(task.get());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("微信登录回调线程池已满，拒绝请求");
+            return CompletableFuture.failedFuture(e);
+        }
+
+        result.orTimeout(weChatHttpConfig.getCallbackTimeout(), TimeUnit.MILLISECONDS)
+                .whenComplete((value, e) -> {
+                    if (e instanceof TimeoutException) {
+                        running.cancel(true);
+                    }
+                });
+        return result;
+    }
+
     /**
      * 获取微信授权URL
      *
@@ -92,8 +178,9 @@ public class WeChatService {
      */
     public WeChatAccessToken getAccessToken(String code) {
         try {
-            String url = String.format("%s?appid=%s&secret=%s&code=%s&grant_type=authorization_code",
-                    WeChatConfig.WECHAT_ACCESS_TOKEN_URL,
+            String url = String.format("%s%s?appid=%s&secret=%s&code=%s&grant_type=authorization_code",
+                    weChatHttpConfig.getApiBaseUrl(),
+                    WeChatHttpConfig.ACCESS_TOKEN_PATH,
                     weChatConfig.getAppId(),
                     weChatConfig.getAppSecret(),
                     code);
@@ -119,14 +206,36 @@ public class WeChatService {
     /**
      * 获取微信用户信息
      *
+     * <p>资料按OpenID缓存，有效期内重复登录直接使用缓存，不再调用微信接口。</p>
+     *
      * @param accessToken Access Token
      * @param openId 用户OpenID
      * @return 用户信息
      */
     public WeChatUserInfo getUserInfo(String accessToken, String openId) {
+        WeChatUserInfo cached = getCachedProfile(openId);
+        if (cached != null) {
+            log.debug("使用缓存的微信用户资料: openId={}", openId);
+            return cached;
+        }
+
+        WeChatUserInfo userInfo = fetchUserInfo(accessToken, openId);
+        cacheProfile(userInfo);
+        return userInfo;
+    }
+
+    /**
+     * 调用微信接口获取用户信息
+     *
+     * @param accessToken Access Token
+     * @param openId 用户OpenID
+     * @return 用户信息
+     */
+    private WeChatUserInfo fetchUserInfo(String accessToken, String openId) {
         try {
-            String url = String.format("%s?access_token=%s&openid=%s",
-                    WeChatConfig.WECHAT_USER_INFO_URL,
+            String url = String.format("%s%s?access_token=%s&openid=%s",
+                    weChatHttpConfig.getApiBaseUrl(),
+                    WeChatHttpConfig.USER_INFO_PATH,
                     accessToken,
                     openId);
 
@@ -149,19 +258,48 @@ public class WeChatService {
     }
 
     /**
-     * 执行HTTP GET请求
+     * 读取缓存的用户资料，缓存不可用时按未命中处理
+     */
+    private WeChatUserInfo getCachedProfile(String openId) {
+        if (openId == null || weChatConfig.getProfileFreshnessSeconds() <= 0) {
+            return null;
+        }
+        try {
+            String json = stringRedisTemplate.opsForValue().get(PROFILE_KEY_PREFIX + openId);
+            return json == null ? null : JSON.parseObject(json, WeChatUserInfo.class);
+        } catch (Exception e) {
+            log.warn("读取微信用户资料缓存失败: openId={}", openId, e);
+            return null;
+        }
+    }
+
+    /**
+     * 缓存用户资料
+     */
+    private void cacheProfile(WeChatUserInfo userInfo) {
+        if (userInfo.getOpenid() == null || weChatConfig.getProfileFreshnessSeconds() <= 0) {
+            return;
+        }
+        try {
+            stringRedisTemplate.opsForValue().set(PROFILE_KEY_PREFIX + userInfo.getOpenid(),
+                    JSON.toJSONString(userInfo), weChatConfig.getProfileFreshnessSeconds(), TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.warn("缓存微信用户资料失败: openId={}", userInfo.getOpenid(), e);
+        }
+    }
+
+    /**
+     * 执行HTTP GET请求（使用共享连接池，响应读取完毕后连接归还池中）
      *
      * @param url 请求URL
      * @return 响应内容
      */
     private String executeHttpGet(String url) throws IOException {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-            HttpUriRequest request = new HttpGet(url);
-            request.addHeader("Content-Type", "application/json; charset=utf-8");
+        HttpUriRequest request = new HttpGet(url);
+        request.addHeader("Content-Type", "application/json; charset=utf-8");
 
-            try (CloseableHttpResponse response = httpClient.execute(request)) {
-                return EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
-            }
+        try (CloseableHttpResponse response = weChatHttpClient.execute(request)) {
+            return EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
         }
     }
 
@@ -172,8 +310,8 @@ public class WeChatService {
      * @return 是否有效
      */
     public boolean validateState(String state) {
-        // TODO: 实现CSRF保护，使用Redis存储状态值
-        return state != null && !state.isEmpty();
+        // state必须是本系统签发且尚未使用过的，原子地标记为已扫码（防CSRF和重放）
+        return state != null && !state.isEmpty() && qrLoginStateService.markScanned(state);
     }
 
     /**
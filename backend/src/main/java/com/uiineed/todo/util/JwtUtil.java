@@ -1,17 +1,20 @@
 package com.uiineed.todo.util;
 
 import com.uiineed.todo.config.JwtConfig;
+import com.uiineed.todo.security.JwtPrincipal;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Date;
+import java.util.UUID;
 
 /**
  * JWT工具类
@@ -26,6 +29,24 @@ public class JwtUtil {
     @Autowired
     private JwtConfig jwtConfig;
 
+    /**
+     * 签名密钥（密钥派生只在启动时执行一次）
+     */
+    private SecretKey signingKey;
+
+    /**
+     * 共享的Token解析器（线程安全，可复用）
+     */
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    public void init() {
+        this.signingKey = Keys.hmacShaKeyFor(jwtConfig.getSecret().getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
+
     /**
      * 生成JWT Token
      *
@@ -38,11 +59,12 @@ public class JwtUtil {
         Instant expiryDate = now.plus(jwtConfig.getExpiration(), ChronoUnit.MILLIS);
 
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(userId.toString())
                 .claim("openId", openId)
                 .setIssuedAt(Date.from(now))
                 .setExpiration(Date.from(expiryDate))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
@@ -53,13 +75,7 @@ public class JwtUtil {
      * @return 用户ID
      */
     public Long getUserIdFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        return Long.parseLong(claims.getSubject());
+        return Long.parseLong(parseClaims(token).getSubject());
     }
 
     /**
@@ -69,13 +85,25 @@ public class JwtUtil {
      * @return OpenID
      */
     public String getOpenIdFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parseClaims(token).get("openId", String.class);
+    }
 
-        return claims.get("openId", String.class);
+    /**
+     * 解析并验证Token，一次性返回主体信息
+     *
+     * @param token JWT Token
+     * @return 主体信息
+     * @throws JwtException Token无效或已过期
+     * @throws IllegalArgumentException Token为空
+     */
+    public JwtPrincipal parseToken(String token) {
+        Claims claims = parseClaims(token);
+        return new JwtPrincipal(
+                claims.getId(),
+                Long.parseLong(claims.getSubject()),
+                claims.get("openId", String.class),
+                claims.getExpiration(),
+                claims.get("type", String.class));
     }
 
     /**
@@ -86,10 +114,7 @@ public class JwtUtil {
      */
     public boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
+            jwtParser.parseClaimsJws(token);
             return true;
         } catch (SecurityException ex) {
             log.error("Invalid JWT signature");
@@ -112,13 +137,7 @@ public class JwtUtil {
      * @return 过期时间
      */
     public Date getExpirationDateFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        return claims.getExpiration();
+        return parseClaims(token).getExpiration();
     }
 
     /**
@@ -146,13 +165,13 @@ public class JwtUtil {
     }
 
     /**
-     * 获取签名密钥
+     * 解析Token声明
      *
-     * @return 签名密钥
+     * @param token JWT Token
+     * @return Token声明
      */
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtConfig.getSecret().getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private Claims parseClaims(String token) {
+        return jwtParser.parseClaimsJws(token).getBody();
     }
 
     /**
@@ -167,12 +186,13 @@ public class JwtUtil {
         Instant expiryDate = now.plus(30, ChronoUnit.DAYS); // 30天有效期
 
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(userId.toString())
                 .claim("openId", openId)
                 .claim("type", "refresh")
                 .setIssuedAt(Date.from(now))
                 .setExpiration(Date.from(expiryDate))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
@@ -184,11 +204,7 @@ public class JwtUtil {
      */
     public boolean validateRefreshToken(String token) {
         try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            Claims claims = parseClaims(token);
 
             String type = claims.get("type", String.class);
             return "refresh".equals(type);
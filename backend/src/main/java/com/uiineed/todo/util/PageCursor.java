@@ -0,0 +1,97 @@
+package com.uiineed.todo.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 游标分页的续读位置
+ *
+ * <p>记录上一页最后一条记录的排序键，对客户端编码为不透明的Base64 URL安全字符串。
+ * 活动列表的排序键为 (sort_order, created_at, id)，回收站为 (deleted_at, id)，
+ * 增量同步为 (change_seq, id)。</p>
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Getter
+@AllArgsConstructor
+public class PageCursor {
+
+    /**
+     * 活动列表游标
+     */
+    public static final String ACTIVE = "a";
+
+    /**
+     * 回收站游标
+     */
+    public static final String TRASH = "t";
+
+    /**
+     * 增量同步游标
+     */
+    public static final String CHANGES = "c";
+
+    /**
+     * 游标类型
+     */
+    private final String kind;
+
+    /**
+     * 数值排序键（活动列表为sort_order，增量同步为change_seq，回收站不使用）
+     */
+    private final Long number;
+
+    /**
+     * 时间排序键（活动列表为created_at，回收站为deleted_at，增量同步不使用）
+     */
+    private final LocalDateTime time;
+
+    /**
+     * 记录ID
+     */
+    private final Long id;
+
+    /**
+     * 编码为不透明字符串
+     *
+     * @return 游标
+     */
+    public String encode() {
+        String raw = kind + "," + (number == null ? "" : number) + "," + (time == null ? "" : time) + "," + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标
+     *
+     * @param cursor 游标字符串，为空时表示从第一页开始
+     * @param expectedKind 期望的游标类型
+     * @return 游标，第一页时返回null
+     * @throws IllegalArgumentException 游标格式错误或类型不匹配
+     */
+    public static PageCursor decode(String cursor, String expectedKind) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(",", -1);
+            if (parts.length != 4 || !parts[0].equals(expectedKind)) {
+                throw new IllegalArgumentException("无效的游标");
+            }
+            return new PageCursor(parts[0],
+                    parts[1].isEmpty() ? null : Long.valueOf(parts[1]),
+                    parts[2].isEmpty() ? null : LocalDateTime.parse(parts[2]),
+                    Long.valueOf(parts[3]));
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("无效的游标", e);
+        }
+    }
+}
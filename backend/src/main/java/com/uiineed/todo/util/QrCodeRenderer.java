@@ -0,0 +1,114 @@
+package com.uiineed.todo.util;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.WriterException;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 二维码渲染工具类
+ *
+ * <p>编码结果保留为模块矩阵（每个模块占1位），SVG直接由矩阵生成路径，
+ * 不经过 BufferedImage；PNG只在需要时按目标尺寸放大后输出。</p>
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+public final class QrCodeRenderer {
+
+    private QrCodeRenderer() {
+    }
+
+    /**
+     * 将内容编码为二维码模块矩阵（含静区）
+     *
+     * @param content 二维码内容
+     * @return 模块矩阵
+     */
+    public static BitMatrix encode(String content) {
+        try {
+            // 宽高为0时按最小尺寸输出，每个模块对应一个像素
+            return new QRCodeWriter().encode(content, BarcodeFormat.QR_CODE, 0, 0);
+        } catch (WriterException e) {
+            throw new IllegalStateException("二维码编码失败", e);
+        }
+    }
+
+    /**
+     * 渲染为SVG
+     *
+     * @param modules 模块矩阵
+     * @param size 显示尺寸（像素）
+     * @return SVG字节（UTF-8）
+     */
+    public static byte[] toSvg(BitMatrix modules, int size) {
+        int width = modules.getWidth();
+        int height = modules.getHeight();
+
+        StringBuilder svg = new StringBuilder(width * height / 2 + 256);
+        svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" viewBox=\"0 0 ")
+                .append(width).append(' ').append(height)
+                .append("\" width=\"").append(size).append("\" height=\"").append(size)
+                .append("\" shape-rendering=\"crispEdges\">")
+                .append("<rect width=\"100%\" height=\"100%\" fill=\"#fff\"/>")
+                .append("<path fill=\"#000\" d=\"");
+
+        // 每行相邻的黑色模块合并为一个矩形
+        for (int y = 0; y < height; y++) {
+            int x = 0;
+            while (x < width) {
+                if (!modules.get(x, y)) {
+                    x++;
+                    continue;
+                }
+                int start = x;
+                while (x < width && modules.get(x, y)) {
+                    x++;
+                }
+                svg.append('M').append(start).append(' ').append(y)
+                        .append('h').append(x - start).append("v1h-").append(x - start).append('z');
+            }
+        }
+
+        svg.append("\"/></svg>");
+        return svg.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 渲染为PNG
+     *
+     * @param modules 模块矩阵
+     * @param size 目标尺寸（像素），按整数倍放大，不足一倍时保持原尺寸
+     * @return PNG字节
+     */
+    public static byte[] toPng(BitMatrix modules, int size) {
+        int width = modules.getWidth();
+        int height = modules.getHeight();
+        int scale = Math.max(1, size / Math.max(width, height));
+
+        BitMatrix scaled = modules;
+        if (scale > 1) {
+            scaled = new BitMatrix(width * scale, height * scale);
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    if (modules.get(x, y)) {
+                        scaled.setRegion(x * scale, y * scale, scale, scale);
+                    }
+                }
+            }
+        }
+
+        try {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            MatrixToImageWriter.writeToStream(scaled, "PNG", outputStream);
+            return outputStream.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("二维码PNG渲染失败", e);
+        }
+    }
+}
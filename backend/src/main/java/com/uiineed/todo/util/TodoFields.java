@@ -0,0 +1,203 @@
+package com.uiineed.todo.util;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.uiineed.todo.entity.Todo;
+import com.uiineed.todo.vo.TodoResponse;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 待办事项列表的字段投影（fields参数）
+ *
+ * <p>客户端用逗号分隔的字段名指定需要的字段，字段名与 {@link TodoResponse} 一致，
+ * 也可以用 compact 表示前端列表视图使用的精简字段。投影下推到查询的 SELECT 中，
+ * 只读取需要的列；响应中未选择的字段为空，序列化时省略。</p>
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+public final class TodoFields {
+
+    /**
+     * 前端列表视图使用的精简字段
+     */
+    public static final String COMPACT = "compact";
+
+    /**
+     * 全部字段（不做投影）
+     */
+    public static final TodoFields ALL = new TodoFields(Collections.emptySet());
+
+    /**
+     * 响应字段名 -> 数据库列
+     */
+    private static final Map<String, String> COLUMNS = new LinkedHashMap<>();
+
+    static {
+        COLUMNS.put("id", "id");
+        COLUMNS.put("title", "title");
+        COLUMNS.put("description", "description");
+        COLUMNS.put("priority", "priority");
+        COLUMNS.put("status", "status");
+        COLUMNS.put("completedAt", "completed_at");
+        COLUMNS.put("dueDate", "due_date");
+        COLUMNS.put("reminderTime", "reminder_time");
+        COLUMNS.put("sortOrder", "sort_order");
+        COLUMNS.put("categoryId", "category_id");
+        COLUMNS.put("completed", "status");
+        COLUMNS.put("removed", "is_deleted");
+        COLUMNS.put("deletedAt", "deleted_at");
+        COLUMNS.put("createdAt", "created_at");
+        COLUMNS.put("updatedAt", "updated_at");
+        COLUMNS.put("version", "content_seq");
+    }
+
+    private static final Set<String> COMPACT_FIELDS = Collections.unmodifiableSet(new LinkedHashSet<>(
+            Arrays.asList("id", "title", "priority", "status", "dueDate", "completed")));
+
+    /**
+     * 选择的字段，为空表示全部字段
+     */
+    private final Set<String> fields;
+
+    private TodoFields(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * 解析fields参数
+     *
+     * @param fields 逗号分隔的字段名，为空时返回全部字段
+     * @return 字段投影
+     * @throws IllegalArgumentException 包含未知字段时
+     */
+    public static TodoFields parse(String fields) {
+        if (fields == null || fields.trim().isEmpty()) {
+            return ALL;
+        }
+
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add("id");
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (COMPACT.equals(name)) {
+                selected.addAll(COMPACT_FIELDS);
+            } else if (COLUMNS.containsKey(name)) {
+                selected.add(name);
+            } else {
+                throw new IllegalArgumentException("不支持的字段: " + name);
+            }
+        }
+        return new TodoFields(Collections.unmodifiableSet(selected));
+    }
+
+    /**
+     * 是否选择了全部字段
+     *
+     * @return 是否全部字段
+     */
+    public boolean isAll() {
+        return fields.isEmpty();
+    }
+
+    /**
+     * 用于缓存键的规范表示
+     *
+     * @return 字段签名
+     */
+    public String signature() {
+        return isAll() ? "*" : String.join(",", fields);
+    }
+
+    /**
+     * 把投影下推到查询
+     *
+     * @param queryWrapper 查询条件
+     * @param requiredColumns 排序、游标等必须读取的列
+     */
+    public void applyTo(QueryWrapper<Todo> queryWrapper, String... requiredColumns) {
+        if (isAll()) {
+            return;
+        }
+
+        Set<String> columns = new LinkedHashSet<>();
+        for (String field : fields) {
+            columns.add(COLUMNS.get(field));
+        }
+        columns.addAll(Arrays.asList(requiredColumns));
+        queryWrapper.select(columns.toArray(new String[0]));
+    }
+
+    /**
+     * 转换为响应对象，只填充选择的字段（全部字段时使用 TodoConverter）
+     *
+     * @param todo 待办事项实体
+     * @return 响应对象
+     */
+    public TodoResponse toResponse(Todo todo) {
+        TodoResponse response = new TodoResponse();
+        for (String field : fields) {
+            switch (field) {
+                case "id":
+                    response.setId(todo.getId());
+                    break;
+                case "title":
+                    response.setTitle(todo.getTitle());
+                    break;
+                case "description":
+                    response.setDescription(todo.getDescription());
+                    break;
+                case "priority":
+                    response.setPriority(todo.getPriority());
+                    break;
+                case "status":
+                    response.setStatus(todo.getStatus());
+                    break;
+                case "completedAt":
+                    response.setCompletedAt(todo.getCompletedAt());
+                    break;
+                case "dueDate":
+                    response.setDueDate(todo.getDueDate());
+                    break;
+                case "reminderTime":
+                    response.setReminderTime(todo.getReminderTime());
+                    break;
+                case "sortOrder":
+                    response.setSortOrder(todo.getSortOrder());
+                    break;
+                case "categoryId":
+                    response.setCategoryId(todo.getCategoryId());
+                    break;
+                case "completed":
+                    response.setCompleted(todo.isCompleted());
+                    break;
+                case "removed":
+                    response.setRemoved(todo.isRemoved());
+                    break;
+                case "deletedAt":
+                    response.setDeletedAt(todo.getDeletedAt());
+                    break;
+                case "createdAt":
+                    response.setCreatedAt(todo.getCreatedAt());
+                    break;
+                case "updatedAt":
+                    response.setUpdatedAt(todo.getUpdatedAt());
+                    break;
+                case "version":
+                    response.setVersion(todo.getContentSeq());
+                    break;
+                default:
+                    break;
+            }
+        }
+        return response;
+    }
+}
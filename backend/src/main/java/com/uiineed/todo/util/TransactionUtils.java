@@ -0,0 +1,37 @@
+package com.uiineed.todo.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 事务工具类
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+public final class TransactionUtils {
+
+    private TransactionUtils() {
+    }
+
+    /**
+     * 在当前事务提交后执行；不在事务中时立即执行，事务回滚时不执行
+     *
+     * <p>用于失效缓存、推送事件等只应在数据已提交后发生的动作，
+     * 避免其他请求在提交前读到旧数据并按新状态缓存。</p>
+     *
+     * @param action 动作
+     */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.uiineed.todo.vo;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 列表分页响应VO
+ *
+ * <p>只包含记录、下一页游标和总数，不输出分页插件的内部状态。</p>
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PageResponse<T> {
+
+    /**
+     * 当前页记录
+     */
+    private List<T> items;
+
+    /**
+     * 下一页游标（没有下一页时为空）
+     */
+    private String cursor;
+
+    /**
+     * 总记录数（未知时为空）
+     */
+    private Long total;
+}
@@ -14,7 +14,7 @@ import lombok.Data;
 public class QrCodeResponse {
 
     /**
-     * 二维码图片（Base64）
+     * 二维码图片URL
      */
     private String qrCode;
 
@@ -24,9 +24,9 @@ public class QrCodeResponse {
     private String state;
 
     /**
-     * 授权URL
+     * 轮询令牌，查询扫码状态时通过 X-Poll-Token 请求头携带
      */
-    private String authUrl;
+    private String pollToken;
 
     /**
      * 提示信息
@@ -0,0 +1,30 @@
+package com.uiineed.todo.vo;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+/**
+ * 扫码登录状态响应VO
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class QrLoginStatusResponse {
+
+    /**
+     * 状态参数
+     */
+    private String state;
+
+    /**
+     * 扫码状态：PENDING-待扫码，SCANNED-已扫码，CONFIRMED-登录成功，FAILED-登录失败，EXPIRED-已过期
+     */
+    private String status;
+
+    /**
+     * 登录结果（仅在CONFIRMED时返回一次）
+     */
+    private LoginResponse login;
+}
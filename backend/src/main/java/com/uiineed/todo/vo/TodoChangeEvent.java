@@ -0,0 +1,51 @@
+package com.uiineed.todo.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 待办事项变更事件VO（实时推送）
+ *
+ * <p>只告知哪些待办事项发生了变化，客户端按需调用增量同步接口读取内容。</p>
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoChangeEvent {
+
+    /**
+     * 新建、修改、完成或恢复
+     */
+    public static final String SAVED = "saved";
+
+    /**
+     * 移入回收站
+     */
+    public static final String REMOVED = "removed";
+
+    /**
+     * 永久删除（清空回收站）
+     */
+    public static final String PURGED = "purged";
+
+    /**
+     * 变更序号，同时作为事件ID（Last-Event-ID）
+     */
+    private Long seq;
+
+    /**
+     * 事件类型：saved、removed、purged
+     */
+    private String type;
+
+    /**
+     * 变化的待办事项ID，数量过多或未知时为空，客户端应执行增量同步
+     */
+    private List<Long> ids;
+}
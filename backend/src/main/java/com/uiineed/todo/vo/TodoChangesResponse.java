@@ -0,0 +1,35 @@
+package com.uiineed.todo.vo;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 增量同步响应VO
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Data
+public class TodoChangesResponse {
+
+    /**
+     * 新建或修改过的待办事项（包括移入回收站和恢复的，按removed区分）
+     */
+    private List<TodoResponse> changes;
+
+    /**
+     * 已永久删除的待办事项ID
+     */
+    private List<Long> deletedIds;
+
+    /**
+     * 同步位置，下次请求作为since传入
+     */
+    private String token;
+
+    /**
+     * 是否还有未返回的变化（为true时应立即用token继续请求）
+     */
+    private Boolean hasMore;
+}
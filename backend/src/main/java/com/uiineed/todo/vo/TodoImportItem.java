@@ -0,0 +1,77 @@
+package com.uiineed.todo.vo;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Size;
+import java.time.LocalDateTime;
+
+/**
+ * 导入待办事项条目VO
+ *
+ * <p>兼容本地存储版本导出的数据（title、completed、removed），未知字段忽略。</p>
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TodoImportItem {
+
+    /**
+     * 待办事项标题
+     */
+    @NotBlank(message = "标题不能为空")
+    @Size(max = 500, message = "标题长度不能超过500个字符")
+    private String title;
+
+    /**
+     * 详细描述
+     */
+    private String description;
+
+    /**
+     * 优先级：1-低，2-中，3-高
+     */
+    @Min(value = 1, message = "优先级最小值为1")
+    @Max(value = 3, message = "优先级最大值为3")
+    private Integer priority;
+
+    /**
+     * 状态：0-待办，1-进行中，2-已完成，3-已取消（为空时按completed判断）
+     */
+    @Min(value = 0, message = "状态值无效")
+    @Max(value = 3, message = "状态值无效")
+    private Integer status;
+
+    /**
+     * 是否完成（本地存储版本）
+     */
+    private Boolean completed;
+
+    /**
+     * 是否已删除（本地存储版本），已删除的导入到回收站
+     */
+    private Boolean removed;
+
+    /**
+     * 截止日期
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime dueDate;
+
+    /**
+     * 提醒时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime reminderTime;
+
+    /**
+     * 分类ID
+     */
+    private Long categoryId;
+}
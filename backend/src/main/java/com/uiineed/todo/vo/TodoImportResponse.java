@@ -0,0 +1,55 @@
+package com.uiineed.todo.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 导入待办事项结果VO
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Data
+public class TodoImportResponse {
+
+    /**
+     * 读取到的条目数
+     */
+    private Integer total = 0;
+
+    /**
+     * 成功导入的条目数
+     */
+    private Integer imported = 0;
+
+    /**
+     * 失败的条目数
+     */
+    private Integer failed = 0;
+
+    /**
+     * 失败条目的错误信息
+     */
+    private List<ItemError> errors = new ArrayList<>();
+
+    /**
+     * 单个条目的错误
+     */
+    @Data
+    @AllArgsConstructor
+    public static class ItemError {
+
+        /**
+         * 条目序号（从0开始）
+         */
+        private Integer index;
+
+        /**
+         * 错误信息
+         */
+        private String message;
+    }
+}
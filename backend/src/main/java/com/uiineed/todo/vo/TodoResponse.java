@@ -62,7 +62,7 @@ public class TodoResponse {
     /**
      * 排序序号
      */
-    private Integer sortOrder;
+    private Long sortOrder;
 
     /**
      * 分类ID
@@ -96,4 +96,9 @@ public class TodoResponse {
      */
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
     private LocalDateTime updatedAt;
+
+    /**
+     * 行版本（最后一次修改内容的变更序号，不随后台重排变化），离线同步时作为冲突检测的基准版本
+     */
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.uiineed.todo.vo;
+
+import lombok.Data;
+
+/**
+ * 待办事项统计响应VO
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Data
+public class TodoStatsResponse {
+
+    /**
+     * 未删除的待办事项总数
+     */
+    private Long total;
+
+    /**
+     * 待办数量
+     */
+    private Long todo;
+
+    /**
+     * 进行中数量
+     */
+    private Long inProgress;
+
+    /**
+     * 已完成数量
+     */
+    private Long completed;
+
+    /**
+     * 已取消数量
+     */
+    private Long cancelled;
+
+    /**
+     * 已逾期数量（待办或进行中且截止时间已过）
+     */
+    private Long overdue;
+
+    /**
+     * 回收站数量
+     */
+    private Long trashed;
+}
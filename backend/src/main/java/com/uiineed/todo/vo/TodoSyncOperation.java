@@ -0,0 +1,115 @@
+package com.uiineed.todo.vo;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+import java.time.LocalDateTime;
+
+/**
+ * 离线同步操作VO（操作日志中的一条）
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Data
+public class TodoSyncOperation {
+
+    public static final String CREATE = "create";
+    public static final String UPDATE = "update";
+    public static final String COMPLETE = "complete";
+    public static final String UNCOMPLETE = "uncomplete";
+    public static final String DELETE = "delete";
+    public static final String RESTORE = "restore";
+    public static final String REORDER = "reorder";
+
+    /**
+     * 操作类型：create、update、complete、uncomplete、delete、restore、reorder
+     */
+    @NotBlank(message = "操作类型不能为空")
+    @Pattern(regexp = "create|update|complete|uncomplete|delete|restore|reorder", message = "不支持的操作类型")
+    private String type;
+
+    /**
+     * 待办事项ID（create 以外的操作，与 tempId 二选一）
+     */
+    private Long id;
+
+    /**
+     * 客户端临时ID：create 操作用它标记新建的待办事项，同一日志中后续操作可以用它引用
+     */
+    @Size(max = 64, message = "临时ID长度不能超过64个字符")
+    private String tempId;
+
+    /**
+     * 客户端修改前看到的行版本，服务端版本更新时判定为冲突；为空时不检测
+     */
+    private Long baseVersion;
+
+    /**
+     * 待办事项标题
+     */
+    @Size(min = 1, max = 500, message = "标题长度必须在1-500个字符之间")
+    private String title;
+
+    /**
+     * 详细描述
+     */
+    private String description;
+
+    /**
+     * 优先级：1-低，2-中，3-高
+     */
+    @Min(value = 1, message = "优先级最小值为1")
+    private Integer priority;
+
+    /**
+     * 状态：0-待办，1-进行中，2-已完成，3-已取消
+     */
+    private Integer status;
+
+    /**
+     * 截止日期
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime dueDate;
+
+    /**
+     * 提醒时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime reminderTime;
+
+    /**
+     * 分类ID
+     */
+    private Long categoryId;
+
+    /**
+     * 排序序号（create，为空时排在最后）
+     */
+    private Long sortOrder;
+
+    /**
+     * reorder：移动后排在它前面的待办事项ID，移到开头时为空
+     */
+    private Long after;
+
+    /**
+     * reorder：同 after，引用本次日志中新建的待办事项
+     */
+    private String afterTempId;
+
+    /**
+     * reorder：移动后排在它后面的待办事项ID，移到末尾时为空
+     */
+    private Long before;
+
+    /**
+     * reorder：同 before，引用本次日志中新建的待办事项
+     */
+    private String beforeTempId;
+}
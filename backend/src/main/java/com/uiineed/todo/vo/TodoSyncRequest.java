@@ -0,0 +1,37 @@
+package com.uiineed.todo.vo;
+
+import lombok.Data;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+/**
+ * 离线同步请求VO
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Data
+public class TodoSyncRequest {
+
+    /**
+     * 上次同步返回的token，响应中返回此后服务端的变化
+     */
+    private String since;
+
+    /**
+     * 按客户端执行顺序排列的操作日志
+     */
+    @NotNull(message = "操作列表不能为空")
+    private List<TodoSyncOperation> operations;
+
+    /**
+     * 响应中最多返回的变化条数
+     */
+    @NotNull
+    @Min(1)
+    @Max(1000)
+    private Integer limit = 200;
+}
@@ -0,0 +1,74 @@
+package com.uiineed.todo.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 离线同步响应VO
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Data
+public class TodoSyncResponse {
+
+    /**
+     * 已执行
+     */
+    public static final String APPLIED = "applied";
+
+    /**
+     * 服务端版本比 baseVersion 新，未执行
+     */
+    public static final String CONFLICT = "conflict";
+
+    /**
+     * 待办事项不存在或状态不允许该操作，未执行
+     */
+    public static final String NOT_FOUND = "not_found";
+
+    /**
+     * 操作参数不合法，未执行
+     */
+    public static final String INVALID = "invalid";
+
+    /**
+     * 每个操作的执行结果，与请求中的操作一一对应
+     */
+    private List<OperationResult> results;
+
+    /**
+     * 执行后服务端自 since 以来的变化（含本次同步的结果）
+     */
+    private TodoChangesResponse changes;
+
+    /**
+     * 单个操作的执行结果
+     */
+    @Data
+    @AllArgsConstructor
+    public static class OperationResult {
+
+        /**
+         * 操作序号（从0开始）
+         */
+        private Integer index;
+
+        /**
+         * 结果：applied、conflict、not_found、invalid
+         */
+        private String status;
+
+        /**
+         * 操作的待办事项ID（create 操作为新建的ID）
+         */
+        private Long id;
+
+        /**
+         * 未执行的原因
+         */
+        private String message;
+    }
+}
@@ -0,0 +1,28 @@
+package com.uiineed.todo.web;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标记支持条件GET（ETag / If-None-Match）的接口
+ *
+ * <p>ETag由版本号提供者给出的版本号和请求URL组成，在执行接口方法之前计算；
+ * 请求头 If-None-Match 与之相同时直接返回304，不执行查询。
+ * 只有成功的 {@link com.uiineed.todo.common.ApiResult} 响应才会带上ETag。</p>
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConditionalGet {
+
+    /**
+     * 版本号提供者（Spring Bean类型）
+     */
+    Class<? extends ETagVersionProvider> value();
+}
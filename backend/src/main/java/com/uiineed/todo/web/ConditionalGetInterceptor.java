@@ -0,0 +1,94 @@
+package com.uiineed.todo.web;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 条件GET拦截器
+ *
+ * <p>在执行标注了 {@link ConditionalGet} 的接口之前计算ETag，If-None-Match 命中时直接返回304；
+ * 未命中时把ETag放到请求属性中，由 {@link ConditionalGetResponseAdvice} 在成功响应上输出。</p>
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Component
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    /**
+     * 保存本次请求ETag的请求属性名
+     */
+    static final String ETAG_ATTRIBUTE = ConditionalGetInterceptor.class.getName() + ".ETAG";
+
+    /**
+     * 带ETag的响应要求客户端每次使用前都重新验证
+     */
+    static final String CACHE_CONTROL = "private, no-cache";
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod) || !"GET".equals(request.getMethod())) {
+            return true;
+        }
+        ConditionalGet conditionalGet = ((HandlerMethod) handler).getMethodAnnotation(ConditionalGet.class);
+        if (conditionalGet == null) {
+            return true;
+        }
+
+        String version = applicationContext.getBean(conditionalGet.value()).currentVersion(request);
+        if (version == null) {
+            return true;
+        }
+
+        String etag = buildETag(version, request);
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            response.setHeader(HttpHeaders.ETAG, etag);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+            return false;
+        }
+
+        request.setAttribute(ETAG_ATTRIBUTE, etag);
+        return true;
+    }
+
+    /**
+     * ETag = 版本号 + 请求URL摘要，同一版本下不同页、不同参数的响应互不相同
+     */
+    private static String buildETag(String version, HttpServletRequest request) {
+        String url = request.getQueryString() == null
+                ? request.getRequestURI()
+                : request.getRequestURI() + "?" + request.getQueryString();
+        return "\"" + version + "-" + Integer.toHexString(url.hashCode()) + "\"";
+    }
+
+    /**
+     * If-None-Match 可以是 *、单个或逗号分隔的多个ETag，按弱比较（忽略 W/ 前缀）
+     */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isEmpty()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if ("*".equals(tag) || etag.equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
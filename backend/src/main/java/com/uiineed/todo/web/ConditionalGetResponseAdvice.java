@@ -0,0 +1,48 @@
+package com.uiineed.todo.web;
+
+import com.uiineed.todo.common.ApiResult;
+import com.uiineed.todo.common.ResultCode;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * 在条件GET接口的成功响应上输出ETag
+ *
+ * <p>失败的响应（如待办事项不存在）不带ETag，避免客户端缓存错误结果。</p>
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@ControllerAdvice
+public class ConditionalGetResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return returnType.hasMethodAnnotation(ConditionalGet.class);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (!(body instanceof ApiResult) || !(request instanceof ServletServerHttpRequest)
+                || !ResultCode.SUCCESS.getCode().equals(((ApiResult<?>) body).getCode())) {
+            return body;
+        }
+
+        Object etag = ((ServletServerHttpRequest) request).getServletRequest()
+                .getAttribute(ConditionalGetInterceptor.ETAG_ATTRIBUTE);
+        if (etag != null) {
+            response.getHeaders().set(HttpHeaders.ETAG, (String) etag);
+            response.getHeaders().set(HttpHeaders.CACHE_CONTROL, ConditionalGetInterceptor.CACHE_CONTROL);
+        }
+        return body;
+    }
+}
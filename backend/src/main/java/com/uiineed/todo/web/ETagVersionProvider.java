@@ -0,0 +1,23 @@
+package com.uiineed.todo.web;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * ETag版本号提供者
+ *
+ * <p>返回当前请求所读数据的版本号，数据任何变化都必须使版本号改变；
+ * 计算应当廉价（读缓存），不能执行接口本身的查询。</p>
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+public interface ETagVersionProvider {
+
+    /**
+     * 获取版本号
+     *
+     * @param request 当前请求
+     * @return 版本号，无法确定时返回null（不做条件GET）
+     */
+    String currentVersion(HttpServletRequest request);
+}
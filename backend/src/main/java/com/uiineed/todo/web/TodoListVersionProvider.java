@@ -0,0 +1,45 @@
+package com.uiineed.todo.web;
+
+import com.uiineed.todo.service.TodoListCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * 以当前用户的待办事项列表版本号作为ETag版本
+ *
+ * <p>用户的任何待办事项（含回收站）变化都会递增列表版本号，
+ * 因此列表、单条和回收站接口都可以用它判断内容是否变化。</p>
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class TodoListVersionProvider implements ETagVersionProvider {
+
+    @Autowired
+    private TodoListCache todoListCache;
+
+    @Override
+    public String currentVersion(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return null;
+        }
+
+        try {
+            Long userId = Long.parseLong(authentication.getName());
+            return userId + "." + todoListCache.currentVersion(userId);
+        } catch (NumberFormatException e) {
+            return null;
+        } catch (Exception e) {
+            log.warn("读取列表版本失败，跳过条件GET", e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.uiineed.todo.mapper;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.MybatisSqlSessionFactoryBuilder;
+import com.uiineed.todo.entity.Todo;
+import com.uiineed.todo.entity.User;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 待办事项映射器测试（条件更新、变更序号和增量读取在真实MySQL上的行为）
+ *
+ * <p>Testcontainers 启动 MySQL 并执行 database/schema.sql，没有Docker时整个类跳过。
+ * 每个测试在一个事务中执行，结束时回滚。</p>
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class TodoMapperTest {
+
+    @Container
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0.33")
+            .withDatabaseName("uiineed_todo");
+
+    private static SqlSessionFactory sqlSessionFactory;
+
+    private SqlSession session;
+
+    private TodoMapper todoMapper;
+
+    private UserMapper userMapper;
+
+    private Long userId;
+
+    @BeforeAll
+    static void createSchema() throws Exception {
+        UnpooledDataSource dataSource = new UnpooledDataSource(MYSQL.getDriverClassName(), MYSQL.getJdbcUrl(),
+                MYSQL.getUsername(), MYSQL.getPassword());
+        try (Connection connection = dataSource.getConnection();
+             Reader schema = Files.newBufferedReader(Paths.get("database/schema.sql"))) {
+            ScriptRunner runner = new ScriptRunner(connection);
+            runner.setLogWriter(null);
+            runner.runScript(schema);
+        }
+
+        MybatisConfiguration configuration = new MybatisConfiguration(
+                new Environment("test", new JdbcTransactionFactory(), dataSource));
+        configuration.setMapUnderscoreToCamelCase(true);
+        configuration.addMapper(TodoMapper.class);
+        configuration.addMapper(UserMapper.class);
+        sqlSessionFactory = new MybatisSqlSessionFactoryBuilder().build(configuration);
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        session = sqlSessionFactory.openSession(false);
+        todoMapper = session.getMapper(TodoMapper.class);
+        userMapper = session.getMapper(UserMapper.class);
+        userId = insertUser();
+    }
+
+    @AfterEach
+    void tearDown() {
+        session.rollback(true);
+        session.close();
+    }
+
+    @Test
+    void incrementChangeSeqReturnsNewValue() {
+        User user = new User();
+        user.setId(userId);
+
+        assertEquals(1, userMapper.incrementChangeSeq(user));
+        assertEquals(1L, user.getChangeSeq());
+        assertEquals(1, userMapper.incrementChangeSeq(user));
+        assertEquals(2L, user.getChangeSeq());
+        assertEquals(2L, userMapper.lockChangeSeq(userId));
+    }
+
+    @Test
+    void markCompletedUpdatesOnlyOwnedActiveRow() throws Exception {
+        Long active = insertTodo(userId, Todo.Status.TODO, 0);
+        Long trashed = insertTodo(userId, Todo.Status.TODO, 1);
+
+        assertEquals(1, todoMapper.markCompleted(mutation(active, userId, 7L)));
+        assertEquals(0, todoMapper.markCompleted(mutation(trashed, userId, 7L)));
+        assertEquals(0, todoMapper.markCompleted(mutation(active, insertUser(), 7L)));
+
+        Todo row = todoMapper.selectOwned(active, userId, 0);
+        assertEquals(Todo.Status.COMPLETED, row.getStatus());
+        assertEquals(7L, row.getChangeSeq());
+        assertEquals(7L, row.getContentSeq());
+    }
+
+    @Test
+    void markUncompletedTouchesOnlyCompletedRow() throws Exception {
+        Long completed = insertTodo(userId, Todo.Status.COMPLETED, 0);
+        Long open = insertTodo(userId, Todo.Status.TODO, 0);
+
+        assertEquals(1, todoMapper.markUncompleted(mutation(completed, userId, 8L)));
+        assertEquals(0, todoMapper.markUncompleted(mutation(open, userId, 8L)));
+
+        Todo row = todoMapper.selectOwned(completed, userId, 0);
+        assertEquals(Todo.Status.TODO, row.getStatus());
+        assertNull(row.getCompletedAt());
+        assertEquals(8L, row.getChangeSeq());
+        assertEquals(0L, todoMapper.selectOwned(open, userId, 0).getChangeSeq());
+    }
+
+    @Test
+    void moveToTrashOnlyOnce() throws Exception {
+        Long id = insertTodo(userId, Todo.Status.TODO, 0);
+
+        assertEquals(1, todoMapper.moveToTrash(mutation(id, userId, 9L)));
+        assertEquals(0, todoMapper.moveToTrash(mutation(id, userId, 10L)));
+
+        assertNull(todoMapper.selectOwned(id, userId, 0));
+        Todo row = todoMapper.selectOwned(id, userId, 1);
+        assertEquals(9L, row.getChangeSeq());
+        assertEquals(Todo.Status.TODO, row.getStatus());
+    }
+
+    @Test
+    void updateSortOrdersKeepsContentVersion() throws Exception {
+        Long id = insertTodo(userId, Todo.Status.TODO, 0);
+        todoMapper.markCompleted(mutation(id, userId, 4L));
+
+        Todo rank = new Todo();
+        rank.setId(id);
+        rank.setSortOrder(1L << 20);
+        assertEquals(1, todoMapper.updateSortOrders(userId, 5L, Collections.singletonList(rank)));
+
+        Todo row = todoMapper.selectOwned(id, userId, 0);
+        assertEquals(1L << 20, row.getSortOrder());
+        assertEquals(5L, row.getChangeSeq());
+        assertEquals(4L, row.getContentSeq());
+    }
+
+    @Test
+    void selectChangedSinceResumesAfterCursorAndKeepsPurgedRows() throws Exception {
+        Long first = insertTodo(userId, Todo.Status.TODO, 0);
+        Long second = insertTodo(userId, Todo.Status.TODO, 1);
+        Long third = insertTodo(userId, Todo.Status.TODO, 0);
+        insertTodo(insertUser(), Todo.Status.TODO, 0);
+        todoMapper.markCompleted(mutation(first, userId, 5L));
+        todoMapper.purgeTrash(userId, 5L);
+        todoMapper.markCompleted(mutation(third, userId, 6L));
+
+        List<Todo> all = todoMapper.selectChangedSince(userId, 0L, 0L, 10);
+        assertEquals(Arrays.asList(first, second, third), ids(all));
+        assertEquals(1, all.get(1).getDeleted());
+
+        // 游标停在 (5, first)：同一序号内ID更大的行和之后的序号继续返回
+        assertEquals(Arrays.asList(second, third), ids(todoMapper.selectChangedSince(userId, 5L, first, 10)));
+        assertEquals(Collections.singletonList(first), ids(todoMapper.selectChangedSince(userId, 0L, 0L, 1)));
+        assertEquals(Collections.emptyList(), todoMapper.selectChangedSince(userId, 6L, third, 10));
+    }
+
+    private static List<Long> ids(List<Todo> todos) {
+        return todos.stream().map(Todo::getId).collect(Collectors.toList());
+    }
+
+    private static TodoMapper.Mutation mutation(Long id, Long userId, Long changeSeq) {
+        TodoMapper.Mutation mutation = new TodoMapper.Mutation();
+        mutation.setId(id);
+        mutation.setUserId(userId);
+        mutation.setChangeSeq(changeSeq);
+        mutation.setTime(LocalDateTime.now());
+        return mutation;
+    }
+
+    private Long insertUser() throws Exception {
+        Connection connection = session.getConnection();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO users (wechat_openid) VALUES (?)", Statement.RETURN_GENERATED_KEYS)) {
+            statement.setString(1, UUID.randomUUID().toString());
+            statement.executeUpdate();
+            return generatedId(statement);
+        }
+    }
+
+    private Long insertTodo(Long owner, int status, int isDeleted) throws Exception {
+        Connection connection = session.getConnection();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO todos (user_id, title, status, is_deleted) VALUES (?, 'todo', ?, ?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            statement.setLong(1, owner);
+            statement.setInt(2, status);
+            statement.setInt(3, isDeleted);
+            statement.executeUpdate();
+            return generatedId(statement);
+        }
+    }
+
+    private static Long generatedId(PreparedStatement statement) throws Exception {
+        try (ResultSet keys = statement.getGeneratedKeys()) {
+            keys.next();
+            return keys.getLong(1);
+        }
+    }
+}
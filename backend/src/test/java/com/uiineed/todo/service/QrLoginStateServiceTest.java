@@ -0,0 +1,128 @@
+package com.uiineed.todo.service;
+
+import com.uiineed.todo.common.ApiResult;
+import com.uiineed.todo.common.ResultCode;
+import com.uiineed.todo.config.WeChatConfig;
+import com.uiineed.todo.vo.QrLoginStatusResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+/**
+ * 扫码登录状态服务测试（轮询令牌校验、登录结果只领取一次）
+ *
+ * <p>Redis以内存Map模拟，领取脚本按其语义（读取并删除结果和state）实现。</p>
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class QrLoginStateServiceTest {
+
+    private static final String STATE = "qr-state";
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    private final Map<String, String> redis = new HashMap<>();
+
+    private QrLoginStateService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        service = new QrLoginStateService();
+        ReflectionTestUtils.setField(service, "stringRedisTemplate", stringRedisTemplate);
+        ReflectionTestUtils.setField(service, "redisMessageListenerContainer", redisMessageListenerContainer);
+        ReflectionTestUtils.setField(service, "weChatConfig", new WeChatConfig());
+
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(anyString())).thenAnswer(invocation -> redis.get(invocation.<String>getArgument(0)));
+        doAnswer(invocation -> redis.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(valueOperations).set(anyString(), anyString(), anyLong(), any());
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList())).thenAnswer(invocation -> {
+            List<String> keys = invocation.getArgument(1);
+            String result = redis.remove(keys.get(0));
+            if (result != null) {
+                redis.remove(keys.get(1));
+            }
+            return result;
+        });
+    }
+
+    @Test
+    void statusWithoutPollTokenIsForbidden() {
+        service.register(STATE);
+
+        assertEquals(ResultCode.FORBIDDEN.getCode(), resultOf(service.await(STATE, null, "PENDING", 1000L)).getCode());
+        assertEquals(ResultCode.FORBIDDEN.getCode(),
+                resultOf(service.await(STATE, "guessed", "PENDING", 1000L)).getCode());
+    }
+
+    @Test
+    void pollTokenIsStoredOnlyAsDigest() {
+        String pollToken = service.register(STATE);
+
+        assertNotNull(pollToken);
+        assertFalse(redis.containsValue(pollToken));
+    }
+
+    @Test
+    void loginResultIsClaimedOnlyOnce() {
+        String pollToken = service.register(STATE);
+        confirmed();
+
+        ApiResult<QrLoginStatusResponse> first = resultOf(service.await(STATE, pollToken, "SCANNED", 1000L));
+        assertEquals(QrLoginStateService.CONFIRMED, first.getData().getStatus());
+        assertEquals("access-token", first.getData().getLogin().getToken());
+
+        ApiResult<QrLoginStatusResponse> second = resultOf(service.await(STATE, pollToken, "SCANNED", 1000L));
+        assertEquals(QrLoginStateService.EXPIRED, second.getData().getStatus());
+        assertNull(second.getData().getLogin());
+    }
+
+    /**
+     * 模拟回调已保存登录结果
+     */
+    private void confirmed() {
+        redis.put("wechat:qr:state:" + STATE, QrLoginStateService.CONFIRMED);
+        redis.put("wechat:qr:result:" + STATE, "{\"token\":\"access-token\"}");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ApiResult<QrLoginStatusResponse> resultOf(DeferredResult<ApiResult<QrLoginStatusResponse>> deferred) {
+        return (ApiResult<QrLoginStatusResponse>) deferred.getResult();
+    }
+}
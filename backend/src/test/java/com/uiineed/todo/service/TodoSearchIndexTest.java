@@ -0,0 +1,109 @@
+package com.uiineed.todo.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.uiineed.todo.entity.Todo;
+import com.uiineed.todo.mapper.TodoMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * 检索索引测试（修改后重新称重、构建期间提交的修改不被快照覆盖）
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class TodoSearchIndexTest {
+
+    private static final Long USER_ID = 42L;
+
+    @Mock
+    private TodoMapper todoMapper;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @InjectMocks
+    private TodoSearchIndex todoSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(todoSearchIndex, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(todoSearchIndex, "maxDocuments", 1000L);
+        ReflectionTestUtils.setField(todoSearchIndex, "refreshInterval", 1800000L);
+        ReflectionTestUtils.setField(todoSearchIndex, "idleTimeout", 3600000L);
+        todoSearchIndex.init();
+    }
+
+    @Test
+    void savedDocumentsAreReweighed() {
+        when(todoMapper.selectList(any())).thenReturn(Collections.singletonList(todo(1L, "买牛奶")));
+        todoSearchIndex.search(USER_ID, "牛奶", 10);
+        assertEquals(1L, weightedSize());
+
+        todoSearchIndex.onSaved(USER_ID, Arrays.asList(todo(2L, "买面包"), todo(3L, "买鸡蛋")));
+        assertEquals(3L, weightedSize());
+
+        todoSearchIndex.onRemoved(USER_ID, Collections.singletonList(1L));
+        assertEquals(2L, weightedSize());
+    }
+
+    @Test
+    void commitDuringBuildSurvivesSnapshot() {
+        // 快照读出之后、替换之前，另一个事务提交了修改
+        when(todoMapper.selectList(any())).thenAnswer(invocation -> {
+            todoSearchIndex.onSaved(todo(1L, "买面包"));
+            return Collections.singletonList(todo(1L, "买牛奶"));
+        });
+
+        assertEquals(Collections.emptyList(), todoSearchIndex.search(USER_ID, "牛奶", 10));
+        assertEquals(Collections.singletonList(1L), todoSearchIndex.search(USER_ID, "面包", 10));
+    }
+
+    @Test
+    void removalDuringBuildSurvivesSnapshot() {
+        when(todoMapper.selectList(any())).thenAnswer(invocation -> {
+            todoSearchIndex.onRemoved(USER_ID, Collections.singletonList(1L));
+            return Collections.singletonList(todo(1L, "买牛奶"));
+        });
+
+        List<Long> ids = todoSearchIndex.search(USER_ID, "牛奶", 10);
+
+        assertEquals(Collections.emptyList(), ids);
+        // 空索引按1计重
+        assertEquals(1L, weightedSize());
+    }
+
+    @SuppressWarnings("unchecked")
+    private long weightedSize() {
+        Cache<Long, ?> indexes = (Cache<Long, ?>) ReflectionTestUtils.getField(todoSearchIndex, "indexes");
+        return indexes.policy().eviction().get().weightedSize().getAsLong();
+    }
+
+    private static Todo todo(Long id, String title) {
+        Todo todo = new Todo();
+        todo.setId(id);
+        todo.setUserId(USER_ID);
+        todo.setTitle(title);
+        return todo;
+    }
+}
@@ -0,0 +1,183 @@
+package com.uiineed.todo.service;
+
+import com.uiineed.todo.converter.TodoConverter;
+import com.uiineed.todo.entity.Todo;
+import com.uiineed.todo.entity.User;
+import com.uiineed.todo.mapper.TodoMapper;
+import com.uiineed.todo.mapper.UserMapper;
+import com.uiineed.todo.vo.TodoChangeEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 待办事项服务测试（清空回收站的删除记录、拖动排序的间隔用尽）
+ *
+ * <p>数据访问层用Mockito模拟，只验证服务层的序号分配和排序序号计算。</p>
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class TodoServiceTest {
+
+    private static final Long USER_ID = 1L;
+
+    /**
+     * 与 TodoService 中新建项的排序序号一致：change_seq 左移20位
+     */
+    private static final int RANK_SHIFT = 20;
+
+    @Mock
+    private TodoMapper todoMapper;
+
+    @Mock
+    private UserMapper userMapper;
+
+    @Mock
+    private TodoListCache todoListCache;
+
+    @Mock
+    private TodoCounterService todoCounterService;
+
+    @Mock
+    private TodoSearchIndex todoSearchIndex;
+
+    @Mock
+    private TodoEventService todoEventService;
+
+    @Mock
+    private TodoRankRebalancer todoRankRebalancer;
+
+    @Mock
+    private TodoConverter todoConverter;
+
+    @InjectMocks
+    private TodoService todoService;
+
+    @Test
+    void emptyTrashWritesTombstonesAfterEarlierCursors() {
+        givenNextChangeSeq(13L);
+        when(todoMapper.purgeTrash(USER_ID, 13L)).thenReturn(2);
+
+        todoService.emptyTrash(USER_ID);
+
+        // 删除记录使用新分配的序号，此前发出的任何同步位置（<= 12）之后都能读到
+        verify(todoMapper).purgeTrash(USER_ID, 13L);
+        verify(todoCounterService).onTrashEmptied(USER_ID, 2);
+        verify(todoEventService).publish(USER_ID, 13L, TodoChangeEvent.PURGED, null);
+    }
+
+    @Test
+    void emptyTrashWithoutTrashedRowsPublishesNothing() {
+        givenNextChangeSeq(13L);
+        when(todoMapper.purgeTrash(USER_ID, 13L)).thenReturn(0);
+
+        todoService.emptyTrash(USER_ID);
+
+        verify(todoEventService, never()).publish(any(), any(), any(), any());
+    }
+
+    @Test
+    void moveTodoRebalancesWhenGapIsExhausted() {
+        long changeSeq = 3L;
+        givenNextChangeSeq(changeSeq);
+        when(todoMapper.selectOwned(5L, USER_ID, 0)).thenReturn(todo(5L, 2L, 0));
+        // 相邻两项的排序序号只差1；重排后按 (0, 3 << 20) 均匀分布
+        long step = (changeSeq << RANK_SHIFT) / 4;
+        when(todoMapper.selectOne(any())).thenReturn(
+                ranked(3L, 100L), ranked(4L, 101L),
+                ranked(3L, step), ranked(4L, step * 3));
+        when(todoMapper.selectList(any())).thenReturn(Arrays.asList(ranked(3L, 100L), ranked(5L, 100L), ranked(4L, 101L)));
+        when(todoMapper.update(isNull(), any())).thenReturn(1);
+
+        Todo moved = todoService.moveTodo(5L, USER_ID, 3L, 4L);
+
+        assertEquals(Long.valueOf(step * 2), moved.getSortOrder());
+        verify(todoMapper).updateSortOrders(eq(USER_ID), eq(changeSeq), anyList());
+        verify(todoEventService).publish(USER_ID, changeSeq, TodoChangeEvent.SAVED, Arrays.asList(3L, 5L, 4L));
+        verify(todoEventService).publish(USER_ID, changeSeq, TodoChangeEvent.SAVED, Collections.singletonList(5L));
+        verify(todoRankRebalancer, never()).schedule(any());
+    }
+
+    @Test
+    void moveTodoRejectsOrderStillInvalidAfterRebalance() {
+        long changeSeq = 3L;
+        givenNextChangeSeq(changeSeq);
+        when(todoMapper.selectOwned(5L, USER_ID, 0)).thenReturn(todo(5L, 2L, 0));
+        // 间隔用尽，重排后 before 排在 after 之前
+        long step = (changeSeq << RANK_SHIFT) / 4;
+        when(todoMapper.selectOne(any())).thenReturn(
+                ranked(3L, 100L), ranked(4L, 101L),
+                ranked(3L, step * 3), ranked(4L, step));
+        when(todoMapper.selectList(any())).thenReturn(Arrays.asList(ranked(4L, 100L), ranked(5L, 100L), ranked(3L, 101L)));
+
+        assertThrows(IllegalArgumentException.class, () -> todoService.moveTodo(5L, USER_ID, 3L, 4L));
+
+        // 重排已写入（不回滚），被移动的行不改写
+        verify(todoMapper).updateSortOrders(eq(USER_ID), eq(changeSeq), anyList());
+        verify(todoMapper, never()).update(any(), any());
+    }
+
+    @Test
+    void moveTodoSchedulesBackgroundRebalanceWhenGapIsSmall() {
+        givenNextChangeSeq(3L);
+        when(todoMapper.selectOwned(5L, USER_ID, 0)).thenReturn(todo(5L, 2L, 0));
+        when(todoMapper.selectOne(any())).thenReturn(ranked(3L, 100L), ranked(4L, 200L));
+        when(todoMapper.update(isNull(), any())).thenReturn(1);
+
+        Todo moved = todoService.moveTodo(5L, USER_ID, 3L, 4L);
+
+        assertEquals(Long.valueOf(150L), moved.getSortOrder());
+        verify(todoRankRebalancer).schedule(USER_ID);
+        verify(todoMapper, never()).updateSortOrders(any(), any(), anyList());
+    }
+
+    @Test
+    void moveTodoRelativeToItselfIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> todoService.moveTodo(5L, USER_ID, 5L, null));
+        verify(userMapper, never()).incrementChangeSeq(any());
+    }
+
+    /**
+     * 模拟 users.change_seq 递增，新值写回参数对象
+     */
+    private void givenNextChangeSeq(long changeSeq) {
+        when(userMapper.incrementChangeSeq(any(User.class))).thenAnswer(invocation -> {
+            invocation.<User>getArgument(0).setChangeSeq(changeSeq);
+            return 1;
+        });
+    }
+
+    private static Todo todo(Long id, Long changeSeq, int deleted) {
+        Todo todo = new Todo();
+        todo.setId(id);
+        todo.setUserId(USER_ID);
+        todo.setChangeSeq(changeSeq);
+        todo.setStatus(Todo.Status.TODO);
+        todo.setIsDeleted(deleted);
+        todo.setDeleted(deleted);
+        return todo;
+    }
+
+    private static Todo ranked(Long id, long sortOrder) {
+        Todo todo = todo(id, 1L, 0);
+        todo.setSortOrder(sortOrder);
+        return todo;
+    }
+}
@@ -0,0 +1,223 @@
+package com.uiineed.todo.service;
+
+import com.uiineed.todo.converter.TodoConverter;
+import com.uiineed.todo.entity.Todo;
+import com.uiineed.todo.mapper.TodoMapper;
+import com.uiineed.todo.mapper.UserMapper;
+import com.uiineed.todo.vo.TodoSyncOperation;
+import com.uiineed.todo.vo.TodoSyncResponse;
+import com.uiineed.todo.vo.TodoSyncResponse.OperationResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.validation.Validator;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 离线同步服务测试（行版本冲突、用户行锁、执行结果）
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TodoSyncServiceTest {
+
+    private static final Long USER_ID = 1L;
+
+    private static final Long TODO_ID = 10L;
+
+    @Mock
+    private TodoService todoService;
+
+    @Mock
+    private TodoMapper todoMapper;
+
+    @Mock
+    private UserMapper userMapper;
+
+    @Mock
+    private TodoConverter todoConverter;
+
+    @Mock
+    private Validator validator;
+
+    @InjectMocks
+    private TodoSyncService todoSyncService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(todoSyncService, "maxOperations", 500);
+        when(validator.validate(any())).thenReturn(Collections.emptySet());
+        when(userMapper.lockChangeSeq(USER_ID)).thenReturn(20L);
+        when(todoConverter.toEntity(any(TodoSyncOperation.class), anyLong(), anyLong())).thenReturn(new Todo());
+    }
+
+    @Test
+    void staleBaseVersionIsConflict() {
+        when(todoMapper.selectById(TODO_ID)).thenReturn(row(12L, 0));
+
+        List<OperationResult> results = todoSyncService.apply(USER_ID,
+                Collections.singletonList(operation(TodoSyncOperation.UPDATE, 11L)));
+
+        assertEquals(TodoSyncResponse.CONFLICT, results.get(0).getStatus());
+        verify(todoService, never()).updateTodo(any());
+    }
+
+    @Test
+    void currentBaseVersionIsApplied() {
+        when(todoMapper.selectById(TODO_ID)).thenReturn(row(12L, 0));
+        when(todoService.updateTodo(any())).thenReturn(row(21L, 0));
+
+        List<OperationResult> results = todoSyncService.apply(USER_ID,
+                Collections.singletonList(operation(TodoSyncOperation.UPDATE, 12L)));
+
+        assertEquals(TodoSyncResponse.APPLIED, results.get(0).getStatus());
+    }
+
+    @Test
+    void rankOnlyRewriteIsNotConflict() {
+        // 后台重排推进了 change_seq，内容版本仍为12
+        Todo rebalanced = row(12L, 0);
+        rebalanced.setChangeSeq(30L);
+        when(todoMapper.selectById(TODO_ID)).thenReturn(rebalanced);
+        when(todoService.updateTodo(any())).thenReturn(row(31L, 0));
+
+        List<OperationResult> results = todoSyncService.apply(USER_ID,
+                Collections.singletonList(operation(TodoSyncOperation.UPDATE, 12L)));
+
+        assertEquals(TodoSyncResponse.APPLIED, results.get(0).getStatus());
+    }
+
+    @Test
+    void laterOperationsOnSameRowCompareWithVersionBeforeSync() {
+        // 第一个操作写入后行版本变为21，第二个操作仍与同步前的版本12比较
+        when(todoMapper.selectById(TODO_ID)).thenReturn(row(12L, 0), row(21L, 0));
+        when(todoService.updateTodo(any())).thenReturn(row(21L, 0));
+        when(todoService.markAsCompleted(TODO_ID, USER_ID)).thenReturn(true);
+
+        List<OperationResult> results = todoSyncService.apply(USER_ID, Arrays.asList(
+                operation(TodoSyncOperation.UPDATE, 12L),
+                operation(TodoSyncOperation.COMPLETE, 12L)));
+
+        assertEquals(TodoSyncResponse.APPLIED, results.get(0).getStatus());
+        assertEquals(TodoSyncResponse.APPLIED, results.get(1).getStatus());
+    }
+
+    @Test
+    void conflictDoesNotStopLaterOperations() {
+        Todo other = row(5L, 0);
+        other.setId(11L);
+        when(todoMapper.selectById(TODO_ID)).thenReturn(row(12L, 0));
+        when(todoMapper.selectById(11L)).thenReturn(other);
+        when(todoService.softDeleteTodo(11L, USER_ID)).thenReturn(true);
+
+        TodoSyncOperation delete = operation(TodoSyncOperation.DELETE, 5L);
+        delete.setId(11L);
+        List<OperationResult> results = todoSyncService.apply(USER_ID, Arrays.asList(
+                operation(TodoSyncOperation.UPDATE, 3L), delete));
+
+        assertEquals(TodoSyncResponse.CONFLICT, results.get(0).getStatus());
+        assertEquals(TodoSyncResponse.APPLIED, results.get(1).getStatus());
+    }
+
+    @Test
+    void userRowIsLockedBeforeReadingVersions() {
+        when(todoMapper.selectById(TODO_ID)).thenReturn(row(12L, 0));
+        when(todoService.markAsCompleted(TODO_ID, USER_ID)).thenReturn(true);
+
+        todoSyncService.apply(USER_ID, Collections.singletonList(operation(TodoSyncOperation.COMPLETE, 12L)));
+
+        InOrder order = inOrder(userMapper, todoMapper);
+        order.verify(userMapper).lockChangeSeq(USER_ID);
+        order.verify(todoMapper).selectById(TODO_ID);
+        verify(userMapper, times(1)).lockChangeSeq(USER_ID);
+    }
+
+    @Test
+    void missingUserFailsWholeSync() {
+        when(userMapper.lockChangeSeq(USER_ID)).thenReturn(null);
+
+        assertThrows(IllegalStateException.class, () -> todoSyncService.apply(USER_ID,
+                Collections.singletonList(operation(TodoSyncOperation.COMPLETE, 12L))));
+        verify(todoMapper, never()).selectById(any());
+    }
+
+    @Test
+    void operationNotAppliedByServiceIsNotFound() {
+        when(todoMapper.selectById(TODO_ID)).thenReturn(row(12L, 0));
+        when(todoService.updateTodo(any())).thenReturn(null);
+        when(todoService.markAsUncompleted(TODO_ID, USER_ID)).thenReturn(false);
+
+        List<OperationResult> results = todoSyncService.apply(USER_ID, Arrays.asList(
+                operation(TodoSyncOperation.UPDATE, 12L),
+                operation(TodoSyncOperation.UNCOMPLETE, 12L)));
+
+        assertEquals(TodoSyncResponse.NOT_FOUND, results.get(0).getStatus());
+        assertEquals(TodoSyncResponse.NOT_FOUND, results.get(1).getStatus());
+    }
+
+    @Test
+    void deleteOfTrashedRowIsAppliedWithoutWriting() {
+        when(todoMapper.selectById(TODO_ID)).thenReturn(row(12L, 1));
+
+        List<OperationResult> results = todoSyncService.apply(USER_ID,
+                Collections.singletonList(operation(TodoSyncOperation.DELETE, 12L)));
+
+        assertEquals(TodoSyncResponse.APPLIED, results.get(0).getStatus());
+        verify(todoService, never()).softDeleteTodo(any(), any());
+    }
+
+    @Test
+    void rowOfAnotherUserIsNotFound() {
+        Todo foreign = row(12L, 0);
+        foreign.setUserId(2L);
+        when(todoMapper.selectById(TODO_ID)).thenReturn(foreign);
+
+        List<OperationResult> results = todoSyncService.apply(USER_ID,
+                Collections.singletonList(operation(TodoSyncOperation.COMPLETE, null)));
+
+        assertEquals(TodoSyncResponse.NOT_FOUND, results.get(0).getStatus());
+        verify(todoService, never()).markAsCompleted(any(), any());
+    }
+
+    private static TodoSyncOperation operation(String type, Long baseVersion) {
+        TodoSyncOperation operation = new TodoSyncOperation();
+        operation.setType(type);
+        operation.setId(TODO_ID);
+        operation.setBaseVersion(baseVersion);
+        return operation;
+    }
+
+    private static Todo row(Long version, int isDeleted) {
+        Todo todo = new Todo();
+        todo.setId(TODO_ID);
+        todo.setUserId(USER_ID);
+        todo.setChangeSeq(version);
+        todo.setContentSeq(version);
+        todo.setStatus(Todo.Status.TODO);
+        todo.setIsDeleted(isDeleted);
+        todo.setDeleted(0);
+        return todo;
+    }
+}
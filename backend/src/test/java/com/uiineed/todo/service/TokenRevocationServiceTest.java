@@ -0,0 +1,125 @@
+package com.uiineed.todo.service;
+
+import com.uiineed.todo.config.JwtConfig;
+import com.uiineed.todo.security.JwtPrincipal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Token吊销服务测试（重建布隆过滤器期间收到的吊销、重新订阅后重建）
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TokenRevocationServiceTest {
+
+    private static final String KEY_PREFIX = "auth:revoked:";
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    private TokenRevocationService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new TokenRevocationService();
+        ReflectionTestUtils.setField(service, "stringRedisTemplate", stringRedisTemplate);
+        ReflectionTestUtils.setField(service, "redisMessageListenerContainer", redisMessageListenerContainer);
+        ReflectionTestUtils.setField(service, "jwtConfig", new JwtConfig());
+        // 布隆过滤器命中后回查Redis，模拟记录存在
+        when(stringRedisTemplate.hasKey(anyString())).thenReturn(true);
+    }
+
+    @Test
+    void revocationReceivedDuringRebuildSurvivesSwap() {
+        givenScan(cursorWith("stored", () -> notify("during-rebuild")));
+
+        service.init();
+
+        assertTrue(service.isRevoked(principal("stored")));
+        assertTrue(service.isRevoked(principal("during-rebuild")));
+    }
+
+    @Test
+    void revocationAfterSwapGoesToNewFilter() {
+        givenScan(cursorWith("stored", () -> { }));
+        service.init();
+
+        notify("after-rebuild");
+
+        assertTrue(service.isRevoked(principal("after-rebuild")));
+        assertFalse(service.isRevoked(principal("never-revoked")));
+    }
+
+    @Test
+    void resubscribeTriggersRebuild() {
+        givenScan(cursorWith("stored", () -> { }));
+        service.init();
+        verify(stringRedisTemplate, times(1)).scan(any(ScanOptions.class));
+
+        byte[] channel = "auth:revoked".getBytes(StandardCharsets.UTF_8);
+        // 首次订阅确认不触发重建，之后的确认说明断线重连过
+        service.onChannelSubscribed(channel, 1);
+        verify(stringRedisTemplate, times(1)).scan(any(ScanOptions.class));
+
+        givenScan(cursorWith("missed-while-disconnected", () -> { }));
+        service.onChannelSubscribed(channel, 1);
+        verify(stringRedisTemplate, timeout(5000).times(2)).scan(any(ScanOptions.class));
+    }
+
+    private void notify(String tokenId) {
+        service.onMessage(new DefaultMessage("auth:revoked".getBytes(StandardCharsets.UTF_8),
+                tokenId.getBytes(StandardCharsets.UTF_8)), null);
+    }
+
+    private void givenScan(Cursor<String> cursor) {
+        when(stringRedisTemplate.scan(any(ScanOptions.class))).thenReturn(cursor);
+    }
+
+    /**
+     * 只含一条记录的扫描游标；读完该记录后、重建切换前执行 duringScan
+     */
+    @SuppressWarnings("unchecked")
+    private static Cursor<String> cursorWith(String tokenId, Runnable duringScan) {
+        Cursor<String> cursor = mock(Cursor.class);
+        when(cursor.hasNext()).thenReturn(true).thenAnswer(invocation -> {
+            duringScan.run();
+            return false;
+        });
+        when(cursor.next()).thenReturn(KEY_PREFIX + tokenId);
+        return cursor;
+    }
+
+    private static JwtPrincipal principal(String tokenId) {
+        return new JwtPrincipal(tokenId, 1L, "openid", new Date(System.currentTimeMillis() + 60000L), null);
+    }
+}
@@ -0,0 +1,104 @@
+package com.uiineed.todo.service;
+
+import com.uiineed.todo.cache.TwoLevelCache;
+import com.uiineed.todo.entity.User;
+import com.uiineed.todo.mapper.UserMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 用户服务测试（状态变更后失效并广播用户缓存）
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class UserServiceTest {
+
+    private static final Long USER_ID = 42L;
+
+    private static final String OPEN_ID = "o6_bmjrPTlm6_2sgVt7hMZOPfL2M";
+
+    @Mock
+    private UserMapper userMapper;
+
+    @Mock
+    private LoginStatsRecorder loginStatsRecorder;
+
+    @Mock
+    private TwoLevelCache<User> userCache;
+
+    @InjectMocks
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userService, "userCache", userCache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void updateStatusEvictsIdAndOpenIdKeys() {
+        when(userMapper.selectById(USER_ID)).thenReturn(user());
+        when(userMapper.update(isNull(), any())).thenReturn(1);
+
+        assertTrue(userService.updateStatus(USER_ID, User.Status.DISABLED));
+
+        verify(userCache).evict("id:" + USER_ID);
+        verify(userCache).evict("openid:" + OPEN_ID);
+    }
+
+    @Test
+    void updateStatusEvictsOnlyAfterCommit() {
+        when(userMapper.selectById(USER_ID)).thenReturn(user());
+        when(userMapper.update(isNull(), any())).thenReturn(1);
+        TransactionSynchronizationManager.initSynchronization();
+
+        userService.updateStatus(USER_ID, User.Status.DISABLED);
+        verify(userCache, never()).evict(any());
+
+        TransactionSynchronizationUtils.triggerAfterCommit();
+        verify(userCache).evict("id:" + USER_ID);
+        verify(userCache).evict("openid:" + OPEN_ID);
+    }
+
+    @Test
+    void updateStatusOfMissingUserChangesNothing() {
+        when(userMapper.selectById(USER_ID)).thenReturn(null);
+
+        assertFalse(userService.updateStatus(USER_ID, User.Status.DISABLED));
+
+        verify(userMapper, never()).update(any(), any());
+        verify(userCache, never()).evict(any());
+    }
+
+    private static User user() {
+        User user = new User();
+        user.setId(USER_ID);
+        user.setWechatOpenId(OPEN_ID);
+        user.setStatus(User.Status.ACTIVE);
+        return user;
+    }
+}
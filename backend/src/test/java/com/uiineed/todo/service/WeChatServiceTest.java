@@ -0,0 +1,210 @@
+package com.uiineed.todo.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.uiineed.todo.config.WeChatConfig;
+import com.uiineed.todo.config.WeChatHttpConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 微信服务测试
+ *
+ * <p>wechat.http.api-base-url 指向本地桩服务（JDK自带的HttpServer），
+ * 经真实的连接池客户端调用，不访问微信接口。</p>
+ *
+ * @author Uiineed
+ * @version 1.0.0
+ */
+class WeChatServiceTest {
+
+    private static final long CALLBACK_TIMEOUT = 300L;
+
+    private HttpServer stub;
+
+    private CloseableHttpClient httpClient;
+
+    private WeChatService weChatService;
+
+    /**
+     * 桩服务下一次返回的响应体
+     */
+    private final AtomicReference<String> stubResponse = new AtomicReference<>();
+
+    /**
+     * 桩服务收到的最后一个查询字符串
+     */
+    private final AtomicReference<String> lastQuery = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stub = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        stub.createContext(WeChatHttpConfig.ACCESS_TOKEN_PATH, this::respond);
+        stub.createContext(WeChatHttpConfig.USER_INFO_PATH, this::respond);
+        stub.start();
+
+        WeChatConfig weChatConfig = new WeChatConfig();
+        weChatConfig.setAppId("wx-test-app");
+        weChatConfig.setAppSecret("test-secret");
+        // 不缓存用户资料，每次都调用桩服务
+        weChatConfig.setProfileFreshnessSeconds(0);
+
+        WeChatHttpConfig weChatHttpConfig = new WeChatHttpConfig();
+        weChatHttpConfig.setApiBaseUrl("http://127.0.0.1:" + stub.getAddress().getPort());
+        weChatHttpConfig.setCallbackThreads(1);
+        weChatHttpConfig.setCallbackQueueCapacity(4);
+        weChatHttpConfig.setCallbackTimeout(CALLBACK_TIMEOUT);
+        httpClient = weChatHttpConfig.weChatHttpClient();
+
+        weChatService = new WeChatService();
+        ReflectionTestUtils.setField(weChatService, "weChatConfig", weChatConfig);
+        ReflectionTestUtils.setField(weChatService, "weChatHttpConfig", weChatHttpConfig);
+        ReflectionTestUtils.setField(weChatService, "weChatHttpClient", httpClient);
+        ReflectionTestUtils.setField(weChatService, "qrLoginStateService", mock(QrLoginStateService.class));
+        ReflectionTestUtils.setField(weChatService, "stringRedisTemplate", mock(StringRedisTemplate.class));
+        weChatService.init();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        weChatService.destroy();
+        httpClient.close();
+        stub.stop(0);
+    }
+
+    @Test
+    void getAccessTokenCallsConfiguredBaseUrl() {
+        stubResponse.set("{\"access_token\":\"ACCESS\",\"expires_in\":7200,\"openid\":\"OPENID\",\"scope\":\"snsapi_login\"}");
+
+        WeChatService.WeChatAccessToken token = weChatService.getAccessToken("CODE");
+
+        assertEquals("ACCESS", token.getAccess_token());
+        assertEquals("OPENID", token.getOpenid());
+        assertEquals("appid=wx-test-app&secret=test-secret&code=CODE&grant_type=authorization_code", lastQuery.get());
+    }
+
+    @Test
+    void getAccessTokenFailsOnErrorCode() {
+        stubResponse.set("{\"errcode\":40029,\"errmsg\":\"invalid code\"}");
+
+        assertThrows(RuntimeException.class, () -> weChatService.getAccessToken("EXPIRED"));
+    }
+
+    @Test
+    void getUserInfoCallsConfiguredBaseUrl() {
+        stubResponse.set("{\"openid\":\"OPENID\",\"nickname\":\"测试用户\",\"sex\":1,\"headimgurl\":\"http://img/a.png\"}");
+
+        WeChatService.WeChatUserInfo userInfo = weChatService.getUserInfo("ACCESS", "OPENID");
+
+        assertEquals("OPENID", userInfo.getOpenid());
+        assertEquals("测试用户", userInfo.getNickname());
+        assertEquals("access_token=ACCESS&openid=OPENID", lastQuery.get());
+    }
+
+    @Test
+    void executeCallbackReturnsTaskResult() throws Exception {
+        stubResponse.set("{\"access_token\":\"ACCESS\",\"openid\":\"OPENID\"}");
+
+        CompletableFuture<String> result = weChatService.executeCallback(
+                () -> weChatService.getAccessToken("CODE").getOpenid());
+
+        assertEquals("OPENID", result.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void executeCallbackTimeoutInterruptsRunningTask() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        CompletableFuture<String> result = weChatService.executeCallback(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+                return "late";
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, e.getCause());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS), "超时后正在执行的任务应被中断");
+    }
+
+    @Test
+    void executeCallbackTimeoutDropsQueuedTask() throws Exception {
+        // 唯一的回调线程被占住，第二个任务只能排队直到超时
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> blocker = weChatService.executeCallback(() -> {
+            awaitUninterruptibly(release);
+            return "blocker";
+        });
+
+        AtomicBoolean queuedRan = new AtomicBoolean();
+        CompletableFuture<String> queued = weChatService.executeCallback(() -> {
+            queuedRan.set(true);
+            return "queued";
+        });
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, e.getCause());
+
+        release.countDown();
+        assertThrows(ExecutionException.class, () -> blocker.get(5, TimeUnit.SECONDS));
+        // 线程空出后，已取消的任务不再执行
+        CompletableFuture<String> next = weChatService.executeCallback(() -> "next");
+        assertEquals("next", next.get(5, TimeUnit.SECONDS));
+        assertFalse(queuedRan.get(), "超时后排队中的任务不应再执行");
+    }
+
+    private void respond(HttpExchange exchange) throws IOException {
+        lastQuery.set(exchange.getRequestURI().getRawQuery());
+        byte[] body = stubResponse.get().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -129,9 +129,10 @@ class ApiServiceV2 {
      */
     async request(url, options = {}) {
         const cacheKey = this.getCacheKey(url, options);
+        const cacheable = (!options.method || options.method.toUpperCase() === 'GET') && options.cache !== 'no-store';
 
         // 检查缓存（仅对GET请求）
-        if (!options.method || options.method.toUpperCase() === 'GET') {
+        if (cacheable) {
             const cachedData = this.getFromCache(cacheKey);
             if (cachedData) {
                 return cachedData;
@@ -151,7 +152,7 @@ class ApiServiceV2 {
             const response = await requestPromise;
 
             // 缓存GET请求的响应
-            if (!options.method || options.method.toUpperCase() === 'GET') {
+            if (cacheable) {
                 this.setCache(cacheKey, response);
             }
 
@@ -335,6 +336,80 @@ class ApiServiceV2 {
         window.dispatchEvent(new CustomEvent('auth:expired'));
     }
 
+    /**
+     * 订阅待办事项变更推送（SSE）
+     * EventSource 不能携带 Authorization 头，这里用 fetch 读取事件流；断线后自动重连并携带 Last-Event-ID
+     * @param {Function} onEvent 回调 (type, data)，type 为 saved、removed、purged 或 reset
+     * @returns {Function} 取消订阅
+     */
+    subscribeTodoEvents(onEvent) {
+        let lastEventId = null;
+        let controller = null;
+        let closed = false;
+
+        const dispatch = (block) => {
+            let type = 'message';
+            let id = null;
+            const data = [];
+            for (const line of block.split('\n')) {
+                if (line.startsWith(':')) continue; // 心跳
+                const index = line.indexOf(':');
+                const field = index < 0 ? line : line.slice(0, index);
+                const value = index < 0 ? '' : line.slice(index + 1).replace(/^ /, '');
+                if (field === 'event') type = value;
+                else if (field === 'id') id = value;
+                else if (field === 'data') data.push(value);
+            }
+            if (id !== null) lastEventId = id;
+            if (type === 'ready') return;
+            onEvent(type, data.length && data[0] ? JSON.parse(data.join('\n')) : null);
+        };
+
+        const connect = async () => {
+            while (!closed) {
+                controller = new AbortController();
+                try {
+                    const headers = { 'Accept': 'text/event-stream' };
+                    if (this.token) headers['Authorization'] = `Bearer ${this.token}`;
+                    if (lastEventId) headers['Last-Event-ID'] = lastEventId;
+
+                    const response = await fetch(`${this.baseURL}/todos/events`, {
+                        headers,
+                        cache: 'no-store',
+                        signal: controller.signal
+                    });
+                    if (response.status === 401) {
+                        this.handleAuthError();
+                        return;
+                    }
+
+                    const reader = response.body.getReader();
+                    const decoder = new TextDecoder();
+                    let buffer = '';
+                    for (;;) {
+                        const { value, done } = await reader.read();
+                        if (done) break;
+                        buffer += decoder.decode(value, { stream: true }).replace(/\r\n?/g, '\n');
+                        let end;
+                        while ((end = buffer.indexOf('\n\n')) >= 0) {
+                            dispatch(buffer.slice(0, end));
+                            buffer = buffer.slice(end + 2);
+                        }
+                    }
+                } catch (error) {
+                    if (closed) return;
+                }
+                await this.delay(this.retryConfig.retryDelay);
+            }
+        };
+
+        connect();
+        return () => {
+            closed = true;
+            if (controller) controller.abort();
+        };
+    }
+
     // ==================== API 方法 ====================
 
     /**
@@ -403,6 +478,16 @@ class ApiServiceV2 {
             method: 'PUT'
         }),
 
+        // 拖动排序：移到 after 和 before 两项之间（省略一侧表示移到开头或末尾）
+        move: (id, { after, before } = {}) => {
+            const query = new URLSearchParams();
+            if (after != null) query.set('after', after);
+            if (before != null) query.set('before', before);
+            return this.requestWithRetry(`/todos/${id}/move?${query}`, {
+                method: 'PUT'
+            });
+        },
+
         // 批量操作
         batchOperation: (action, ids) => this.requestWithRetry('/todos/batch', {
             method: 'POST',
@@ -416,7 +501,19 @@ class ApiServiceV2 {
         getTrash: (params = {}) => {
             const query = new URLSearchParams(params).toString();
             return this.requestWithRetry(`/todos/trash?${query}`);
-        }
+        },
+
+        // 增量同步：传入上次返回的token，只获取之后变化的待办事项（不走本地缓存）
+        getChanges: (since) => {
+            const query = since ? `?since=${encodeURIComponent(since)}` : '';
+            return this.requestWithRetry(`/todos/changes${query}`, { cache: 'no-store' });
+        },
+
+        // 离线同步：一次提交本地排队的操作日志，返回每个操作的结果和服务端变化
+        sync: (since, operations) => this.requestWithRetry('/todos/sync', {
+            method: 'POST',
+            body: JSON.stringify({ since, operations })
+        })
     };
 
     /**
@@ -137,6 +137,28 @@ class ApiService {
         }
     }
 
+    /**
+     * 等待扫码登录状态变化（长轮询）
+     * @param {string} state - 二维码状态参数
+     * @param {string} pollToken - 获取二维码时返回的轮询令牌
+     * @param {string} since - 已知的扫码状态
+     */
+    async waitQrLoginStatus(state, pollToken, since) {
+        const response = await this.get(`/auth/qrcode/${encodeURIComponent(state)}/status?since=${since}`, {
+            headers: { 'X-Poll-Token': pollToken }
+        });
+        if (response.code !== 200) {
+            throw new Error(response.message);
+        }
+        const status = response.data;
+        if (status.status === 'CONFIRMED' && status.login) {
+            this.token = status.login.token;
+            this.currentUser = status.login.user;
+            localStorage.setItem('uiineed-jwt-token', this.token);
+        }
+        return status;
+    }
+
     /**
      * 刷新Token
      */